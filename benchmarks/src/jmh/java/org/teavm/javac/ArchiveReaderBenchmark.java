@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ArchiveReaderBenchmark {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    @Param({ BenchmarkInputs.SDK, BenchmarkInputs.RUNTIME })
+    public String archive;
+
+    private byte[] data;
+
+    @Setup
+    public void setup() throws IOException {
+        data = BenchmarkInputs.readArchive(archive);
+    }
+
+    @Benchmark
+    public ArchiveReader readIndex() throws IOException {
+        return new ArchiveReader(data);
+    }
+
+    @Benchmark
+    public void readAllEntries(Blackhole blackhole) throws IOException {
+        var reader = new ArchiveReader(data);
+        for (var entry : reader.getEntries()) {
+            blackhole.consume(reader.readData(entry));
+        }
+    }
+
+    // Same as loading archive while it's being downloaded, entries are not inflated
+    @Benchmark
+    public void streamEntries(Blackhole blackhole) throws IOException {
+        var decoder = new ArchiveStreamDecoder((name, loader) -> blackhole.consume(loader),
+                JavaDecompressor.INSTANCE);
+        for (var offset = 0; offset < data.length; offset += CHUNK_SIZE) {
+            decoder.feed(data, offset, Math.min(CHUNK_SIZE, data.length - offset));
+        }
+        blackhole.consume(decoder.finish());
+    }
+}
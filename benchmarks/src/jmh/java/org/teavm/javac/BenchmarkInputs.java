@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Classlib archives are produced by :compiler build, benchmarks receive their location via system property
+final class BenchmarkInputs {
+    static final String SDK = "compile-classlib-teavm.bin";
+    static final String RUNTIME = "runtime-classlib-teavm.bin";
+
+    private BenchmarkInputs() {
+    }
+
+    static byte[] readArchive(String name) throws IOException {
+        var dir = System.getProperty("teavm.javac.classlib");
+        if (dir == null) {
+            throw new IllegalStateException("Location of classlib archives is not specified, "
+                    + "set teavm.javac.classlib system property");
+        }
+        return Files.readAllBytes(Path.of(dir, name));
+    }
+
+    // Lazily loaded files, same as Compiler.setSdk produces
+    static FileSet loadArchive(String name) throws IOException {
+        var files = new FileSet();
+        var archive = new ArchiveReader(readArchive(name));
+        for (var entry : archive.getEntries()) {
+            files.add(entry.getName()).setLoader(archive.getLoader(entry));
+        }
+        return files;
+    }
+
+    static List<byte[]> readClasses(String archiveName, String prefix) throws IOException {
+        var archive = new ArchiveReader(readArchive(archiveName));
+        var result = new ArrayList<byte[]>();
+        for (var entry : archive.getEntries()) {
+            if (entry.getName().startsWith(prefix) && entry.getName().endsWith(".class")) {
+                result.add(archive.readData(entry));
+            }
+        }
+        return result;
+    }
+
+    static String readProgram(String name) {
+        try (var input = BenchmarkInputs.class.getResourceAsStream("/corpus/" + name + ".java")) {
+            if (input == null) {
+                throw new IllegalArgumentException("Program not found: " + name);
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
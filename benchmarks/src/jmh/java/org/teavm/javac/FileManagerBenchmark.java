@@ -0,0 +1,82 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileManagerBenchmark {
+    private static final Set<JavaFileObject.Kind> CLASSES = EnumSet.of(JavaFileObject.Kind.CLASS);
+
+    // javac probes every simple name against imported packages, so most lookups miss
+    private static final String[] CLASS_NAMES = {
+        "java.lang.Object", "java.lang.String", "java.util.ArrayList", "java.util.function.Function",
+        "java.util.stream.Collectors", "java.lang.List", "java.lang.Map", "java.util.String",
+        "Main", "java.lang.Main", "java.util.Main", "com.example.Main"
+    };
+
+    private FileManagerImpl fileManager;
+
+    @Setup
+    public void setup() throws IOException {
+        var sdk = BenchmarkInputs.loadArchive(BenchmarkInputs.SDK);
+        fileManager = new FileManagerImpl(new FileSet(), new FileSet(), sdk, new FileSet());
+    }
+
+    @Benchmark
+    public Iterable<JavaFileObject> listPackage() {
+        return fileManager.list(StandardLocation.PLATFORM_CLASS_PATH, "java.util", CLASSES, false);
+    }
+
+    @Benchmark
+    public Iterable<JavaFileObject> listRecursively() {
+        return fileManager.list(StandardLocation.PLATFORM_CLASS_PATH, "java", CLASSES, true);
+    }
+
+    @Benchmark
+    public void getJavaFileForInput(Blackhole blackhole) {
+        for (var className : CLASS_NAMES) {
+            blackhole.consume(fileManager.getJavaFileForInput(StandardLocation.PLATFORM_CLASS_PATH, className,
+                    JavaFileObject.Kind.CLASS));
+        }
+    }
+
+    @Benchmark
+    public void getFileForInput(Blackhole blackhole) {
+        blackhole.consume(fileManager.getFileForInput(StandardLocation.PLATFORM_CLASS_PATH, "java.lang",
+                "Object.class"));
+        blackhole.consume(fileManager.getFileForInput(StandardLocation.PLATFORM_CLASS_PATH, "com.example",
+                "Main.class"));
+        blackhole.consume(fileManager.getFileForInput(StandardLocation.PLATFORM_CLASS_PATH, "",
+                "module-info.class"));
+    }
+}
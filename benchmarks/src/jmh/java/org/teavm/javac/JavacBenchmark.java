@@ -0,0 +1,67 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JavacBenchmark {
+    @Param({ "HelloWorld", "Collections", "Records", "Algorithms" })
+    public String program;
+
+    @Param({ "false", "true" })
+    public boolean persistentSession;
+
+    private Compiler compiler;
+
+    @Setup
+    public void setup() throws IOException {
+        compiler = new Compiler();
+        compiler.setSdk(BenchmarkInputs.readArchive(BenchmarkInputs.SDK));
+        compiler.setPersistentSession(persistentSession);
+        compiler.setResultCacheCapacity(0);
+        compiler.addSourceFile("Main.java", BenchmarkInputs.readProgram(program));
+
+        var errors = new ArrayList<String>();
+        compiler.onDiagnostic(diagnostic -> {
+            if (diagnostic.getSeverity().equals("error")) {
+                errors.add(diagnostic.getFileName() + ":" + diagnostic.getLineNumber() + ": "
+                        + diagnostic.getMessage());
+            }
+        });
+        if (!compiler.compile()) {
+            throw new IllegalStateException("Program " + program + " does not compile: " + errors);
+        }
+    }
+
+    @Benchmark
+    public boolean compile() {
+        return compiler.compile();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StdlibConverterBenchmark {
+    private List<byte[]> classes;
+
+    @Setup
+    public void setup() throws IOException {
+        classes = BenchmarkInputs.readClasses(BenchmarkInputs.RUNTIME, "org/teavm/classlib/java/");
+        if (classes.isEmpty()) {
+            throw new IllegalStateException("No classlib classes found in " + BenchmarkInputs.RUNTIME);
+        }
+    }
+
+    // Flags are the same as used when producing SDK
+    @Benchmark
+    public void convert(Blackhole blackhole) {
+        for (var bytes : classes) {
+            var writer = new ClassWriter(0);
+            var converter = new StdlibConverter(writer);
+            new ClassReader(bytes).accept(converter, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES
+                    | ClassReader.SKIP_DEBUG);
+            blackhole.consume(writer.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SymbolIndexBenchmark {
+    private FileSet sdk;
+    private byte[] serialized;
+    private List<SymbolIndex> indexes;
+
+    @Setup
+    public void setup() throws IOException {
+        sdk = BenchmarkInputs.loadArchive(BenchmarkInputs.SDK);
+        var builder = new SymbolIndex.Builder();
+        builder.addClasses(sdk);
+        var index = builder.build();
+        serialized = index.toByteArray();
+        indexes = List.of(index);
+    }
+
+    // What happens on the first completion request when SDK archive has no precomputed index
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SymbolIndex build() {
+        var builder = new SymbolIndex.Builder();
+        builder.addClasses(sdk);
+        return builder.build();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SymbolIndex read() throws IOException {
+        return SymbolIndex.read(serialized);
+    }
+
+    @Benchmark
+    public int completeType() {
+        var result = new ArrayList<CompletionItem>();
+        SymbolIndex.completeType(indexes, "Str", 50, result);
+        return result.size();
+    }
+
+    @Benchmark
+    public int completePackage() {
+        var result = new ArrayList<CompletionItem>();
+        SymbolIndex.completePackage(indexes, "java/util", "", 50, result);
+        return result.size();
+    }
+
+    // Walks the whole hierarchy of a class
+    @Benchmark
+    public int completeMember() {
+        var result = new ArrayList<CompletionItem>();
+        SymbolIndex.completeMember(indexes, "java/util/ArrayList", "", false, 0, result);
+        return result.size();
+    }
+}
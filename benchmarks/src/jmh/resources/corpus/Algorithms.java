@@ -0,0 +1,120 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.PriorityQueue;
+
+public class Main {
+    static int[] sieve(int limit) {
+        BitSet composite = new BitSet(limit + 1);
+        for (int i = 2; (long) i * i <= limit; i++) {
+            if (!composite.get(i)) {
+                for (int j = i * i; j <= limit; j += i) {
+                    composite.set(j);
+                }
+            }
+        }
+        return java.util.stream.IntStream.rangeClosed(2, limit).filter(i -> !composite.get(i)).toArray();
+    }
+
+    static void quickSort(int[] array, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int pivot = array[(from + to) >>> 1];
+        int i = from;
+        int j = to - 1;
+        while (i <= j) {
+            while (array[i] < pivot) {
+                i++;
+            }
+            while (array[j] > pivot) {
+                j--;
+            }
+            if (i <= j) {
+                int tmp = array[i];
+                array[i++] = array[j];
+                array[j--] = tmp;
+            }
+        }
+        quickSort(array, from, j + 1);
+        quickSort(array, i, to);
+    }
+
+    static int[] dijkstra(int[][] graph, int start) {
+        int[] dist = new int[graph.length];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        dist[start] = 0;
+        PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> Integer.compare(a[1], b[1]));
+        queue.add(new int[] { start, 0 });
+        while (!queue.isEmpty()) {
+            int[] current = queue.poll();
+            if (current[1] > dist[current[0]]) {
+                continue;
+            }
+            for (int next = 0; next < graph.length; next++) {
+                int weight = graph[current[0]][next];
+                if (weight > 0 && dist[current[0]] + weight < dist[next]) {
+                    dist[next] = dist[current[0]] + weight;
+                    queue.add(new int[] { next, dist[next] });
+                }
+            }
+        }
+        return dist;
+    }
+
+    static int bfs(char[][] maze) {
+        int rows = maze.length;
+        int cols = maze[0].length;
+        int[][] steps = new int[rows][cols];
+        for (int[] row : steps) {
+            Arrays.fill(row, -1);
+        }
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        queue.add(new int[] { 0, 0 });
+        steps[0][0] = 0;
+        int[][] directions = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+        while (!queue.isEmpty()) {
+            int[] cell = queue.poll();
+            for (int[] d : directions) {
+                int r = cell[0] + d[0];
+                int c = cell[1] + d[1];
+                if (r >= 0 && r < rows && c >= 0 && c < cols && maze[r][c] == '.' && steps[r][c] < 0) {
+                    steps[r][c] = steps[cell[0]][cell[1]] + 1;
+                    queue.add(new int[] { r, c });
+                }
+            }
+        }
+        return steps[rows - 1][cols - 1];
+    }
+
+    public static void main(String[] args) {
+        int[] primes = sieve(1000);
+        System.out.println(primes.length + " primes, last is " + primes[primes.length - 1]);
+
+        int[] array = new int[1000];
+        long seed = 12345;
+        for (int i = 0; i < array.length; i++) {
+            seed = (seed * 6364136223846793005L + 1442695040888963407L);
+            array[i] = (int) (seed >>> 33) % 10000;
+        }
+        quickSort(array, 0, array.length);
+        System.out.println("Sorted: " + array[0] + " .. " + array[array.length - 1]);
+
+        int[][] graph = {
+            { 0, 4, 0, 0, 8 },
+            { 4, 0, 8, 0, 11 },
+            { 0, 8, 0, 7, 0 },
+            { 0, 0, 7, 0, 9 },
+            { 8, 11, 0, 9, 0 }
+        };
+        System.out.println("Distances: " + Arrays.toString(dijkstra(graph, 0)));
+
+        char[][] maze = {
+            "..#....".toCharArray(),
+            ".##.##.".toCharArray(),
+            "....#..".toCharArray(),
+            ".#.....".toCharArray()
+        };
+        System.out.println("Maze path length: " + bfs(maze));
+    }
+}
@@ -0,0 +1,36 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class Main {
+    public static void main(String[] args) {
+        List<String> words = new ArrayList<>(List.of("apple", "banana", "cherry", "date", "elderberry",
+                "fig", "grape", "honeydew", "kiwi", "lemon"));
+        Map<Integer, List<String>> byLength = words.stream()
+                .collect(Collectors.groupingBy(String::length, TreeMap::new, Collectors.toList()));
+        System.out.println(byLength);
+
+        Map<Character, Integer> letters = new HashMap<>();
+        for (String word : words) {
+            for (char c : word.toCharArray()) {
+                letters.merge(c, 1, Integer::sum);
+            }
+        }
+        letters.entrySet().stream()
+                .sorted(Map.Entry.<Character, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(5)
+                .forEach(e -> System.out.println(e.getKey() + ": " + e.getValue()));
+
+        words.sort(Comparator.comparing(String::length).thenComparing(Comparator.reverseOrder()));
+        System.out.println(String.join(", ", words));
+
+        int sumOfSquares = IntStream.rangeClosed(1, 100).filter(i -> i % 3 == 0).map(i -> i * i).sum();
+        System.out.println("Sum of squares: " + sumOfSquares);
+    }
+}
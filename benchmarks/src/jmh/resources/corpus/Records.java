@@ -0,0 +1,53 @@
+import java.util.List;
+
+public class Main {
+    sealed interface Shape permits Circle, Rectangle, Triangle {
+    }
+
+    record Circle(double radius) implements Shape {
+    }
+
+    record Rectangle(double width, double height) implements Shape {
+    }
+
+    record Triangle(double a, double b, double c) implements Shape {
+        Triangle {
+            if (a + b <= c || a + c <= b || b + c <= a) {
+                throw new IllegalArgumentException("Not a triangle");
+            }
+        }
+    }
+
+    static double area(Shape shape) {
+        return switch (shape) {
+            case Circle c -> Math.PI * c.radius() * c.radius();
+            case Rectangle(double w, double h) -> w * h;
+            case Triangle(double a, double b, double c) -> {
+                double s = (a + b + c) / 2;
+                yield Math.sqrt(s * (s - a) * (s - b) * (s - c));
+            }
+        };
+    }
+
+    static String describe(Object value) {
+        return switch (value) {
+            case null -> "nothing";
+            case Integer i when i > 100 -> "large number " + i;
+            case Integer i -> "number " + i;
+            case String s -> "text of length " + s.length();
+            case Shape s -> "shape with area " + area(s);
+            default -> "something else";
+        };
+    }
+
+    public static void main(String[] args) {
+        List<Shape> shapes = List.of(new Circle(1), new Rectangle(2, 3), new Triangle(3, 4, 5));
+        for (Shape shape : shapes) {
+            System.out.println(shape + ": " + area(shape));
+        }
+        for (Object value : new Object[] { 42, 1000, "hello", new Circle(2), 3.5 }) {
+            System.out.println(describe(value));
+        }
+        System.out.println(new Rectangle(2, 3).equals(new Rectangle(2, 3)));
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+// Compiles and runs corpus of programs with compiler.wasm and reports latency percentiles.
+// Usage: node harness.mjs --compiler <dist dir> --corpus <dir> [--corpus <dir>...]
+//     [--iterations N] [--warmup N] [--persistent-session] [--incremental]
+//     [--output results.json] [--baseline results.json] [--threshold 0.2]
+// Every .java file in corpus directory is a separate program,
+// every subdirectory is a program consisting of all .java files inside it.
+
+import fs from "node:fs";
+import path from "node:path";
+import { pathToFileURL } from "node:url";
+import { parseArgs } from "node:util";
+
+const { values: args } = parseArgs({
+    options: {
+        compiler: { type: "string" },
+        corpus: { type: "string", multiple: true, default: [] },
+        iterations: { type: "string", default: "10" },
+        warmup: { type: "string", default: "2" },
+        "persistent-session": { type: "boolean", default: false },
+        incremental: { type: "boolean", default: false },
+        output: { type: "string" },
+        baseline: { type: "string" },
+        threshold: { type: "string", default: "0.2" },
+        verbose: { type: "boolean", default: false }
+    }
+});
+
+if (!args.compiler || args.corpus.length === 0) {
+    console.error("Both --compiler and --corpus must be specified");
+    process.exit(2);
+}
+
+const iterations = parseInt(args.iterations);
+const warmup = parseInt(args.warmup);
+const operations = ["compile", "generateWebAssembly", "run"];
+
+function readBinary(file) {
+    let buffer = fs.readFileSync(file);
+    return new Int8Array(buffer.buffer, buffer.byteOffset, buffer.length);
+}
+
+function collectPrograms(dirs) {
+    let programs = [];
+    for (let dir of dirs) {
+        for (let entry of fs.readdirSync(dir, { withFileTypes: true }).sort((a, b) => a.name.localeCompare(b.name))) {
+            let fullPath = path.join(dir, entry.name);
+            if (entry.isDirectory()) {
+                let files = listSources(fullPath, fullPath);
+                if (files.length > 0) {
+                    programs.push({ name: entry.name, files });
+                }
+            } else if (entry.name.endsWith(".java")) {
+                // Standalone programs are allowed to have any file name, while declaring public class Main
+                let content = fs.readFileSync(fullPath, "utf8");
+                programs.push({ name: entry.name.substring(0, entry.name.length - 5),
+                    files: [{ name: "Main.java", content }] });
+            }
+        }
+    }
+    return programs;
+}
+
+function listSources(root, dir) {
+    let result = [];
+    for (let entry of fs.readdirSync(dir, { withFileTypes: true })) {
+        let fullPath = path.join(dir, entry.name);
+        if (entry.isDirectory()) {
+            result.push(...listSources(root, fullPath));
+        } else if (entry.name.endsWith(".java")) {
+            result.push({
+                name: path.relative(root, fullPath).split(path.sep).join("/"),
+                content: fs.readFileSync(fullPath, "utf8")
+            });
+        }
+    }
+    return result;
+}
+
+function percentile(sorted, p) {
+    if (sorted.length === 0) {
+        return NaN;
+    }
+    let index = Math.ceil(p / 100 * sorted.length) - 1;
+    return sorted[Math.min(sorted.length - 1, Math.max(0, index))];
+}
+
+function summarize(samples) {
+    let sorted = [...samples].sort((a, b) => a - b);
+    return {
+        count: sorted.length,
+        p50: percentile(sorted, 50),
+        p95: percentile(sorted, 95),
+        p99: percentile(sorted, 99),
+        max: sorted.length > 0 ? sorted[sorted.length - 1] : NaN
+    };
+}
+
+let peakHeapUsed = 0;
+function sampleMemory() {
+    peakHeapUsed = Math.max(peakHeapUsed, process.memoryUsage().heapUsed);
+}
+
+function measure(samples, record, action) {
+    let start = performance.now();
+    let result = action();
+    let elapsed = performance.now() - start;
+    if (record) {
+        samples.push(elapsed);
+    }
+    sampleMemory();
+    return result;
+}
+
+const { load } = await import(pathToFileURL(path.join(args.compiler, "compiler.wasm-runtime.js")).href);
+
+let teavm = await load(path.join(args.compiler, "compiler.wasm"));
+let compiler = teavm.exports.createCompiler();
+compiler.setSdk(readBinary(path.join(args.compiler, "compile-classlib-teavm.bin")));
+compiler.setTeaVMClasslib(readBinary(path.join(args.compiler, "runtime-classlib-teavm.bin")));
+// Repeated builds of the same program must not be replayed from cache
+compiler.setResultCacheCapacity(0);
+compiler.setPersistentSession(args["persistent-session"]);
+compiler.setIncrementalGeneration(args.incremental);
+
+let diagnostics = [];
+compiler.onDiagnostic(diagnostic => {
+    if (diagnostic.severity === "error") {
+        diagnostics.push(`${diagnostic.fileName}:${diagnostic.lineNumber}: ${diagnostic.message}`);
+    }
+});
+
+let samples = {};
+for (let operation of operations) {
+    samples[operation] = [];
+}
+let failures = [];
+let programs = collectPrograms(args.corpus);
+let start = performance.now();
+
+for (let program of programs) {
+    let programSamples = {};
+    for (let operation of operations) {
+        programSamples[operation] = [];
+    }
+    try {
+        for (let i = 0; i < warmup + iterations; ++i) {
+            let record = i >= warmup;
+            diagnostics = [];
+            compiler.clearSourceFiles();
+            compiler.clearOutputFiles();
+            compiler.addSourceFiles(program.files);
+            if (!measure(programSamples.compile, record, () => compiler.compile())) {
+                throw new Error("compilation failed\n" + diagnostics.join("\n"));
+            }
+            let mainClasses = compiler.detectMainClasses();
+            if (mainClasses.length === 0) {
+                throw new Error("no main class found");
+            }
+            let generated = measure(programSamples.generateWebAssembly, record, () => compiler.generateWebAssembly({
+                outputName: "app",
+                mainClass: mainClasses[0]
+            }));
+            if (!generated) {
+                throw new Error("WebAssembly generation failed\n" + diagnostics.join("\n"));
+            }
+            let output = await run(compiler.getWebAssemblyOutputFile("app.wasm"), programSamples.run, record);
+            if (args.verbose && i === 0) {
+                console.log(`${program.name} output:\n${output}`);
+            }
+        }
+    } catch (e) {
+        failures.push({ program: program.name, message: e.message });
+        console.error(`${program.name}: ${e.message}`);
+        continue;
+    }
+    for (let operation of operations) {
+        samples[operation].push(...programSamples[operation]);
+    }
+    let compile = summarize(programSamples.compile);
+    let generate = summarize(programSamples.generateWebAssembly);
+    console.log(`${program.name}: compile p50 ${compile.p50.toFixed(1)} ms, `
+        + `generateWebAssembly p50 ${generate.p50.toFixed(1)} ms`);
+}
+
+async function run(wasm, runSamples, record) {
+    let output = "";
+    let start = performance.now();
+    let module = await load(wasm, {
+        installImports(o) {
+            o.teavmConsole.putcharStdout = ch => output += String.fromCharCode(ch);
+            o.teavmConsole.putcharStderr = ch => output += String.fromCharCode(ch);
+        }
+    });
+    module.exports.main([]);
+    if (record) {
+        runSamples.push(performance.now() - start);
+    }
+    sampleMemory();
+    return output;
+}
+
+let result = {
+    compilerDir: path.resolve(args.compiler),
+    programs: programs.length,
+    iterations,
+    persistentSession: args["persistent-session"],
+    incremental: args.incremental,
+    totalTime: performance.now() - start,
+    // Wasm GC objects live in V8 heap, so heap usage covers compiler's own memory
+    peakHeapUsed,
+    peakRss: process.resourceUsage().maxRSS * 1024,
+    operations: {},
+    failures
+};
+for (let operation of operations) {
+    result.operations[operation] = summarize(samples[operation]);
+}
+
+console.log();
+console.log("operation            count      p50      p95      p99      max");
+for (let operation of operations) {
+    let s = result.operations[operation];
+    console.log(operation.padEnd(20) + String(s.count).padStart(6)
+        + [s.p50, s.p95, s.p99, s.max].map(v => v.toFixed(1).padStart(9)).join(""));
+}
+console.log(`Peak heap used: ${(peakHeapUsed / 1048576).toFixed(1)} MB, `
+    + `peak RSS: ${(result.peakRss / 1048576).toFixed(1)} MB`);
+
+if (args.output) {
+    fs.mkdirSync(path.dirname(path.resolve(args.output)), { recursive: true });
+    fs.writeFileSync(args.output, JSON.stringify(result, null, 2));
+}
+
+let regressions = [];
+if (args.baseline) {
+    let baseline = JSON.parse(fs.readFileSync(args.baseline, "utf8"));
+    let threshold = parseFloat(args.threshold);
+    for (let operation of ["compile", "generateWebAssembly"]) {
+        let before = baseline.operations[operation];
+        let after = result.operations[operation];
+        if (!before || before.count === 0 || after.count === 0) {
+            continue;
+        }
+        for (let p of ["p50", "p95"]) {
+            if (after[p] > before[p] * (1 + threshold)) {
+                regressions.push(`${operation} ${p}: ${before[p].toFixed(1)} ms -> ${after[p].toFixed(1)} ms`);
+            }
+        }
+    }
+    for (let regression of regressions) {
+        console.error("Regression: " + regression);
+    }
+}
+
+process.exit(failures.length > 0 || regressions.length > 0 ? 1 : 0);
@@ -16,53 +16,151 @@
 
 package org.teavm.javac;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.DataOutputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.zip.GZIPOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
 
 public class ArchiveBuilder implements Closeable {
     private final DataOutputStream output;
+    private final List<IndexEntry> index = new ArrayList<>();
+    private long contentHash = ContentHash.EMPTY;
 
     public ArchiveBuilder(OutputStream output) throws IOException {
-        this.output = new DataOutputStream(new GZIPOutputStream(output));
+        this.output = new DataOutputStream(new BufferedOutputStream(output));
+        this.output.writeInt(ArchiveFormat.MAGIC);
+        this.output.writeShort(ArchiveFormat.VERSION);
     }
 
     @Override
     public void close() throws IOException {
-        output.close();
+        try {
+            output.writeShort(0);
+            var indexOffset = output.size();
+            output.writeInt(index.size());
+            for (var entry : index) {
+                output.writeShort(entry.name.length);
+                output.write(entry.name);
+                output.writeByte(entry.method);
+                output.writeInt(entry.size);
+                output.writeInt(entry.storedSize);
+                output.writeInt(entry.dataOffset);
+            }
+            output.writeLong(contentHash);
+            output.writeInt(indexOffset);
+            output.writeInt(ArchiveFormat.MAGIC);
+        } finally {
+            output.close();
+        }
     }
 
     public void append(String entryName, byte[] data) throws IOException {
-        var name = entryName.getBytes(StandardCharsets.UTF_8);
-        output.writeShort(name.length);
-        output.write(name);
-        output.writeInt(data.length);
-        output.write(data);
+        append(prepare(entryName, data));
+    }
+
+    // Compresses entry data without touching the archive, so that entries can be prepared concurrently
+    // and then appended in a fixed order.
+    public static PreparedEntry prepare(String entryName, byte[] data) {
+        var entry = new PreparedEntry();
+        entry.name = entryName;
+        entry.size = data.length;
+        entry.hash = ContentHash.of(data);
+        var compressed = compress(data);
+        if (compressed.length < data.length) {
+            entry.method = ArchiveFormat.DEFLATED;
+            entry.data = compressed;
+        } else {
+            entry.method = ArchiveFormat.STORED;
+            entry.data = data;
+        }
+        return entry;
+    }
+
+    public void append(PreparedEntry prepared) throws IOException {
+        var entry = new IndexEntry();
+        entry.name = prepared.name.getBytes(StandardCharsets.UTF_8);
+        entry.method = prepared.method;
+        entry.size = prepared.size;
+        entry.storedSize = prepared.data.length;
+
+        output.writeShort(entry.name.length);
+        output.write(entry.name);
+        output.writeByte(entry.method);
+        output.writeInt(entry.size);
+        output.writeInt(entry.storedSize);
+        entry.dataOffset = output.size();
+        output.write(prepared.data);
+
+        index.add(entry);
+        contentHash = ContentHash.update(ContentHash.update(contentHash, prepared.name), prepared.hash);
+    }
+
+    private static byte[] compress(byte[] data) {
+        var deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            var result = new ByteArrayOutputStream(Math.max(16, data.length / 2));
+            var buffer = new byte[4096];
+            while (!deflater.finished()) {
+                var count = deflater.deflate(buffer);
+                result.write(buffer, 0, count);
+            }
+            return result.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static final class PreparedEntry {
+        String name;
+        byte method;
+        int size;
+        long hash;
+        byte[] data;
+
+        PreparedEntry() {
+        }
+    }
+
+    private static class IndexEntry {
+        byte[] name;
+        byte method;
+        int size;
+        int storedSize;
+        int dataOffset;
     }
 
     public static void main(String[] args) throws IOException {
         var root = Path.of(args[0]);
         var outPath = Path.of(args[1]);
         Files.createDirectories(outPath.getParent());
-        try (var input = Files.walk(root);
-                var output = new ArchiveBuilder(Files.newOutputStream(outPath))) {
-            input.forEach(file -> {
-                if (Files.isRegularFile(file)) {
-                    var relName = root.relativize(file).toString();
+        List<Path> files;
+        try (var input = Files.walk(root)) {
+            files = input.filter(Files::isRegularFile).sorted().toList();
+        }
+        var entries = files.parallelStream()
+                .map(file -> {
                     try {
-                        output.append(relName, Files.readAllBytes(file));
+                        return prepare(root.relativize(file).toString(), Files.readAllBytes(file));
                     } catch (IOException e) {
                         throw new UncheckedIOException(e);
                     }
-                }
-            });
+                })
+                .toList();
+        try (var output = new ArchiveBuilder(Files.newOutputStream(outPath))) {
+            for (var entry : entries) {
+                output.append(entry);
+            }
         }
     }
 }
@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+/*
+ * Layout of an archive (all numbers are big-endian):
+ *
+ *   header:  [int MAGIC][short VERSION]
+ *   entries: [short nameLength][name][byte method][int size][int storedSize][stored data]
+ *            followed by [short 0]
+ *   index:   [int count] followed by count times
+ *            [short nameLength][name][byte method][int size][int storedSize][int dataOffset]
+ *   trailer: [long contentHash][int indexOffset][int MAGIC]
+ *
+ * Each entry is compressed independently, so a reader can locate an entry through the index
+ * and inflate it without touching the rest of the archive. Local entry headers duplicate index
+ * information to allow reading an archive sequentially, zero name length marks end of entries,
+ * so that sequential reader does not need to know where index starts.
+ *
+ * Content hash is computed over names and uncompressed data of all entries, so it identifies
+ * archive version without reading it entirely.
+ */
+final class ArchiveFormat {
+    static final int MAGIC = 0x54564A41;
+    static final int VERSION = 3;
+    static final int HEADER_SIZE = 6;
+    static final int TRAILER_SIZE = 16;
+
+    static final byte STORED = 0;
+    static final byte DEFLATED = 1;
+
+    private ArchiveFormat() {
+    }
+
+    // Takes first HEADER_SIZE and last TRAILER_SIZE bytes of an archive and returns content hash as a string,
+    // or null if archive does not declare one
+    static String readContentHash(byte[] header, byte[] trailer) {
+        if (header.length < HEADER_SIZE || trailer.length < TRAILER_SIZE || readInt(header, 0) != MAGIC
+                || readInt(trailer, TRAILER_SIZE - 4) != MAGIC) {
+            return null;
+        }
+        var version = ((header[4] & 0xFF) << 8) | (header[5] & 0xFF);
+        if (version != VERSION) {
+            return null;
+        }
+        var hash = ((long) readInt(trailer, 0) << 32) | (readInt(trailer, 4) & 0xFFFFFFFFL);
+        return Long.toHexString(hash);
+    }
+
+    static int readInt(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16)
+                | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.teavm.jso.JSExport;
+import org.teavm.jso.typedarrays.Int8Array;
+
+public class ArchiveLoader {
+    private final FileSet files;
+    private final ArchiveStreamDecoder decoder;
+    private final List<FileData> loadedFiles = new ArrayList<>();
+
+    ArchiveLoader(FileSet files, boolean javaBase, Decompressor decompressor) {
+        this.files = files;
+        files.clear();
+        decoder = new ArchiveStreamDecoder((name, loader) -> {
+            var file = files.add(name);
+            file.lastModified = System.currentTimeMillis();
+            file.isJavaBase = javaBase;
+            file.setLoader(loader);
+            loadedFiles.add(file);
+        }, decompressor);
+    }
+
+    @JSExport
+    public void feed(Int8Array chunk) throws IOException {
+        var data = chunk.copyToJavaArray();
+        decoder.feed(data, 0, data.length);
+    }
+
+    @JSExport
+    public void finish() throws IOException {
+        var archiveHash = decoder.finish();
+        for (var file : loadedFiles) {
+            file.setHash(archiveHash);
+        }
+        loadedFiles.clear();
+        files.contentChanged();
+    }
+}
@@ -16,41 +16,188 @@
 
 package org.teavm.javac;
 
-import java.io.Closeable;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
-import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 import java.util.zip.GZIPInputStream;
 
-public class ArchiveReader implements Closeable {
-    private final DataInputStream input;
+public class ArchiveReader {
+    private byte[] data;
+    private final Decompressor decompressor;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private long contentHash;
+    private boolean contentHashKnown;
 
-    public ArchiveReader(InputStream input) throws IOException {
-        this.input = new DataInputStream(new GZIPInputStream(input));
+    public ArchiveReader(byte[] data) throws IOException {
+        this(data, JavaDecompressor.INSTANCE);
     }
 
-    @Override
-    public void close() throws IOException {
-        input.close();
+    ArchiveReader(byte[] data, Decompressor decompressor) throws IOException {
+        this.data = data;
+        this.decompressor = decompressor;
+        if (data.length >= 2 && (data[0] & 0xFF) == 0x1F && (data[1] & 0xFF) == 0x8B) {
+            readLegacy();
+        } else {
+            readIndex();
+        }
+    }
+
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    // Returns hash stored in archive, falls back to hash of decompressed data for legacy GZIP archives
+    public long getContentHash() {
+        if (!contentHashKnown) {
+            contentHash = ContentHash.of(data);
+            contentHashKnown = true;
+        }
+        return contentHash;
+    }
+
+    public Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    public byte[] readData(String name) throws IOException {
+        var entry = entries.get(name);
+        return entry != null ? readData(entry) : null;
     }
 
-    public String readNext() throws IOException {
-        int nameLength;
-        try {
-            nameLength = input.readShort();
-        } catch (EOFException e) {
-            return null;
+    public byte[] readData(Entry entry) throws IOException {
+        switch (entry.method) {
+            case ArchiveFormat.STORED: {
+                var result = new byte[entry.size];
+                System.arraycopy(data, entry.dataOffset, result, 0, entry.size);
+                return result;
+            }
+            case ArchiveFormat.DEFLATED:
+                return decompressor.inflate(data, entry.dataOffset, entry.storedSize, entry.size, entry.name);
+            default:
+                throw new IOException("Unsupported compression method " + entry.method + " of entry " + entry.name);
+        }
+    }
+
+    // Returns loader that reads entry on demand
+    Supplier<byte[]> getLoader(Entry entry) {
+        if (entry.method == ArchiveFormat.DEFLATED) {
+            return new CompressedEntry(entry.name, data, entry.dataOffset, entry.storedSize, entry.size,
+                    decompressor);
+        }
+        return () -> {
+            try {
+                return readData(entry);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private void readIndex() throws IOException {
+        var trailerSize = ArchiveFormat.TRAILER_SIZE;
+        if (data.length < ArchiveFormat.HEADER_SIZE + trailerSize
+                || readInt(0) != ArchiveFormat.MAGIC || readInt(data.length - 4) != ArchiveFormat.MAGIC) {
+            throw new IOException("Not a classlib archive");
+        }
+        var version = ((data[4] & 0xFF) << 8) | (data[5] & 0xFF);
+        if (version != ArchiveFormat.VERSION) {
+            throw new IOException("Unsupported archive version " + version);
+        }
+        var trailerOffset = data.length - trailerSize;
+        contentHash = ((long) readInt(trailerOffset) << 32) | (readInt(trailerOffset + 4) & 0xFFFFFFFFL);
+        contentHashKnown = true;
+        var indexOffset = readInt(data.length - 8);
+        if (indexOffset < ArchiveFormat.HEADER_SIZE || indexOffset > data.length - trailerSize) {
+            throw new IOException("Archive index points outside of archive");
+        }
+        var input = new DataInputStream(new ByteArrayInputStream(data, indexOffset,
+                data.length - trailerSize - indexOffset));
+        var count = input.readInt();
+        for (var i = 0; i < count; ++i) {
+            var entry = new Entry();
+            entry.name = readName(input);
+            entry.method = input.readByte();
+            entry.size = input.readInt();
+            entry.storedSize = input.readInt();
+            entry.dataOffset = input.readInt();
+            if (entry.size < 0 || entry.dataOffset < 0 || entry.storedSize < 0
+                    || entry.storedSize > indexOffset - entry.dataOffset) {
+                throw new IOException("Entry " + entry.name + " points outside of archive");
+            }
+            entries.put(entry.name, entry);
         }
-        var bytes = new byte[nameLength];
+    }
+
+    private void readLegacy() throws IOException {
+        byte[] decoded;
+        try (var input = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            decoded = input.readAllBytes();
+        }
+        data = decoded;
+        var offset = 0;
+        while (offset < decoded.length) {
+            if (decoded.length - offset < 2) {
+                throw new IOException("Archive is truncated");
+            }
+            var nameLength = ((decoded[offset] & 0xFF) << 8) | (decoded[offset + 1] & 0xFF);
+            if (decoded.length - offset - 2 < nameLength + 4) {
+                throw new IOException("Archive is truncated");
+            }
+            var entry = new Entry();
+            entry.name = new String(decoded, offset + 2, nameLength, StandardCharsets.UTF_8);
+            entry.size = ArchiveFormat.readInt(decoded, offset + 2 + nameLength);
+            entry.method = ArchiveFormat.STORED;
+            entry.storedSize = entry.size;
+            entry.dataOffset = offset + 2 + nameLength + 4;
+            if (entry.size < 0 || entry.size > decoded.length - entry.dataOffset) {
+                throw new IOException("Entry " + entry.name + " is truncated");
+            }
+            offset = entry.dataOffset + entry.size;
+            entries.put(entry.name, entry);
+        }
+    }
+
+    private static String readName(DataInputStream input) throws IOException {
+        var bytes = new byte[input.readUnsignedShort()];
         input.readFully(bytes);
         return new String(bytes, StandardCharsets.UTF_8);
     }
 
-    public byte[] readData() throws IOException {
-        byte[] data = new byte[input.readInt()];
-        input.readFully(data);
-        return data;
+    private int readInt(int offset) {
+        return ArchiveFormat.readInt(data, offset);
+    }
+
+    public static final class Entry {
+        String name;
+        byte method;
+        int size;
+        int storedSize;
+        int dataOffset;
+
+        Entry() {
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getStoredSize() {
+            return storedSize;
+        }
+
+        public boolean isCompressed() {
+            return method != ArchiveFormat.STORED;
+        }
     }
 }
@@ -0,0 +1,169 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+// Reads archive from chunks as they arrive and reports each entry as soon as its data is complete.
+// Entries are inflated lazily, like in ArchiveReader. Legacy GZIP archives can't be read sequentially,
+// so they are buffered and read on finish.
+class ArchiveStreamDecoder {
+    private final EntryConsumer consumer;
+    private final Decompressor decompressor;
+    private byte[] buffer = new byte[64 * 1024];
+    private int start;
+    private int end;
+    private State state = State.HEADER;
+
+    ArchiveStreamDecoder(EntryConsumer consumer, Decompressor decompressor) {
+        this.consumer = consumer;
+        this.decompressor = decompressor;
+    }
+
+    void feed(byte[] chunk, int offset, int length) throws IOException {
+        append(chunk, offset, length);
+        if (state == State.HEADER) {
+            readHeader();
+        }
+        if (state == State.ENTRIES) {
+            readEntries();
+        }
+        if (state == State.INDEX) {
+            // Index duplicates local entry headers, only trailer is of interest
+            start = Math.max(start, end - ArchiveFormat.TRAILER_SIZE);
+        }
+    }
+
+    // Returns content hash of archive
+    long finish() throws IOException {
+        switch (state) {
+            case BUFFERED: {
+                var archive = new ArchiveReader(Arrays.copyOf(buffer, end), decompressor);
+                buffer = null;
+                for (var entry : archive.getEntries()) {
+                    consumer.accept(entry.getName(), archive.getLoader(entry));
+                }
+                return archive.getContentHash();
+            }
+            case INDEX:
+                if (end - start < ArchiveFormat.TRAILER_SIZE || readInt(end - 4) != ArchiveFormat.MAGIC) {
+                    throw new IOException("Archive is truncated");
+                }
+                var hash = ((long) readInt(start) << 32) | (readInt(start + 4) & 0xFFFFFFFFL);
+                buffer = null;
+                return hash;
+            default:
+                throw new IOException("Archive is truncated");
+        }
+    }
+
+    private void readHeader() throws IOException {
+        if (end - start >= 2 && (buffer[start] & 0xFF) == 0x1F && (buffer[start + 1] & 0xFF) == 0x8B) {
+            state = State.BUFFERED;
+            return;
+        }
+        if (end - start < ArchiveFormat.HEADER_SIZE) {
+            return;
+        }
+        if (readInt(start) != ArchiveFormat.MAGIC) {
+            throw new IOException("Not a classlib archive");
+        }
+        var version = readShort(start + 4);
+        if (version != ArchiveFormat.VERSION) {
+            throw new IOException("Unsupported archive version " + version);
+        }
+        start += ArchiveFormat.HEADER_SIZE;
+        state = State.ENTRIES;
+    }
+
+    private void readEntries() throws IOException {
+        while (end - start >= 2) {
+            var nameLength = readShort(start);
+            if (nameLength == 0) {
+                start += 2;
+                state = State.INDEX;
+                return;
+            }
+            var headerSize = 2 + nameLength + 9;
+            if (end - start < headerSize) {
+                return;
+            }
+            var method = buffer[start + 2 + nameLength];
+            var size = readInt(start + 3 + nameLength);
+            var storedSize = readInt(start + 7 + nameLength);
+            var name = new String(buffer, start + 2, nameLength, StandardCharsets.UTF_8);
+            if (size < 0 || storedSize < 0) {
+                throw new IOException("Entry " + name + " is corrupted");
+            }
+            if (end - start - headerSize < storedSize) {
+                return;
+            }
+            var dataOffset = start + headerSize;
+            var data = Arrays.copyOfRange(buffer, dataOffset, dataOffset + storedSize);
+            start = dataOffset + storedSize;
+            consumer.accept(name, loader(name, method, size, data));
+        }
+    }
+
+    private Supplier<byte[]> loader(String name, byte method, int size, byte[] data) throws IOException {
+        switch (method) {
+            case ArchiveFormat.STORED:
+                return () -> data;
+            case ArchiveFormat.DEFLATED:
+                return new CompressedEntry(name, data, 0, data.length, size, decompressor);
+            default:
+                throw new IOException("Unsupported compression method " + method + " of entry " + name);
+        }
+    }
+
+    private void append(byte[] chunk, int offset, int length) {
+        if (buffer.length - end < length) {
+            // Buffered archives are read from the beginning, so they are never compacted
+            var keep = state == State.BUFFERED ? 0 : start;
+            var required = end - keep + length;
+            var target = required <= buffer.length ? buffer : new byte[Math.max(required, buffer.length * 2)];
+            System.arraycopy(buffer, keep, target, 0, end - keep);
+            buffer = target;
+            start -= keep;
+            end -= keep;
+        }
+        System.arraycopy(chunk, offset, buffer, end, length);
+        end += length;
+    }
+
+    private int readShort(int offset) {
+        return ((buffer[offset] & 0xFF) << 8) | (buffer[offset + 1] & 0xFF);
+    }
+
+    private int readInt(int offset) {
+        return ArchiveFormat.readInt(buffer, offset);
+    }
+
+    interface EntryConsumer {
+        void accept(String name, Supplier<byte[]> loader);
+    }
+
+    private enum State {
+        HEADER,
+        ENTRIES,
+        INDEX,
+        BUFFERED
+    }
+}
@@ -36,4 +36,9 @@ public abstract class BaseDiagnostic {
     public String getFileName() {
         throw new UnsupportedOperationException();
     }
+
+    // Returns copy that does not reference compiler data structures, suitable for keeping in caches
+    BaseDiagnostic snapshot() {
+        return this;
+    }
 }
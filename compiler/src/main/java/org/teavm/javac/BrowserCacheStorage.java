@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import org.teavm.jso.JSBody;
+import org.teavm.jso.JSObject;
+import org.teavm.jso.core.JSPromise;
+import org.teavm.jso.typedarrays.Int8Array;
+
+// Stores files in Cache API, which is available both to pages and workers, but only in secure contexts
+class BrowserCacheStorage implements Storage {
+    private final JSPromise<JSObject> cache;
+
+    BrowserCacheStorage(String name) {
+        cache = open(name);
+    }
+
+    @JSBody(script = "return typeof caches !== 'undefined';")
+    static native boolean isSupported();
+
+    @Override
+    public JSPromise<Int8Array> get(String key) {
+        return cache.flatThen(c -> match(c, key));
+    }
+
+    @Override
+    public JSPromise<String> getValidator(String key) {
+        return cache.flatThen(c -> matchValidator(c, key));
+    }
+
+    @Override
+    public JSPromise<Boolean> put(String key, Int8Array data, String validator) {
+        return cache.flatThen(c -> store(c, key, data, validator));
+    }
+
+    @JSBody(params = "name", script = "return caches.open(name);")
+    private static native JSPromise<JSObject> open(String name);
+
+    @JSBody(params = { "cache", "key" }, script = ""
+            + "return cache.match(key)"
+            + ".then(response => response ? response.arrayBuffer().then(buffer => new Int8Array(buffer)) : null)"
+            + ".catch(() => null);")
+    private static native JSPromise<Int8Array> match(JSObject cache, String key);
+
+    @JSBody(params = { "cache", "key" }, script = ""
+            + "return cache.match(key)"
+            + ".then(response => response ? response.headers.get('X-Validator') : null)"
+            + ".catch(() => null);")
+    private static native JSPromise<String> matchValidator(JSObject cache, String key);
+
+    // Validator is kept in a header of stored response
+    @JSBody(params = { "cache", "key", "data", "validator" }, script = ""
+            + "var headers = validator ? { 'X-Validator': validator } : {};"
+            + "return cache.put(key, new Response(data, { headers: headers })).then(() => true, () => false);")
+    private static native JSPromise<Boolean> store(JSObject cache, String key, Int8Array data, String validator);
+}
@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.teavm.jso.JSExport;
+import org.teavm.jso.JSProperty;
+
+// Work done by a single compile or generateWebAssembly call, or by all calls made so far
+public class BuildStats {
+    private final String operation;
+    int buildCount;
+    int resultCacheHits;
+    int parseCacheHits;
+    int duration;
+    final Map<String, Integer> phases = new LinkedHashMap<>();
+    int sdkFilesRead;
+    int classlibFilesRead;
+    int classPathFilesRead;
+    long decodedBytes;
+    int outputFiles;
+    long outputBytes;
+    int generationCacheHits;
+    int generationCacheMisses;
+
+    BuildStats(String operation) {
+        this.operation = operation;
+    }
+
+    void addPhase(String tool, String phase, int elapsed) {
+        phases.merge(tool + ":" + phase, elapsed, Integer::sum);
+    }
+
+    void add(BuildStats other) {
+        buildCount += other.buildCount;
+        resultCacheHits += other.resultCacheHits;
+        parseCacheHits += other.parseCacheHits;
+        duration += other.duration;
+        for (var entry : other.phases.entrySet()) {
+            phases.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        sdkFilesRead += other.sdkFilesRead;
+        classlibFilesRead += other.classlibFilesRead;
+        classPathFilesRead += other.classPathFilesRead;
+        decodedBytes += other.decodedBytes;
+        outputFiles += other.outputFiles;
+        outputBytes += other.outputBytes;
+        generationCacheHits += other.generationCacheHits;
+        generationCacheMisses += other.generationCacheMisses;
+    }
+
+    // Either "compile", "generate-webassembly" or "all" for cumulative stats
+    @JSExport
+    @JSProperty
+    public String getOperation() {
+        return operation;
+    }
+
+    @JSExport
+    @JSProperty
+    public int getBuildCount() {
+        return buildCount;
+    }
+
+    // Number of builds which were replayed from result cache
+    @JSExport
+    @JSProperty
+    public int getResultCacheHits() {
+        return resultCacheHits;
+    }
+
+    // Number of source files whose parse trees were reused in persistent session
+    @JSExport
+    @JSProperty
+    public int getParseCacheHits() {
+        return parseCacheHits;
+    }
+
+    // Milliseconds
+    @JSExport
+    @JSProperty
+    public int getDuration() {
+        return duration;
+    }
+
+    // Names of phases in form of tool:phase, e.g. javac:attribute
+    @JSExport
+    @JSProperty
+    public String[] getPhaseNames() {
+        return phases.keySet().toArray(new String[0]);
+    }
+
+    // Milliseconds spent in phases, in order of getPhaseNames
+    @JSExport
+    @JSProperty
+    public int[] getPhaseDurations() {
+        return phases.values().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @JSExport
+    @JSProperty
+    public int getSdkFilesRead() {
+        return sdkFilesRead;
+    }
+
+    @JSExport
+    @JSProperty
+    public int getClasslibFilesRead() {
+        return classlibFilesRead;
+    }
+
+    @JSExport
+    @JSProperty
+    public int getClassPathFilesRead() {
+        return classPathFilesRead;
+    }
+
+    // Bytes of input files that were inflated or copied from Int8Array during build
+    @JSExport
+    @JSProperty
+    public double getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    @JSExport
+    @JSProperty
+    public int getOutputFiles() {
+        return outputFiles;
+    }
+
+    @JSExport
+    @JSProperty
+    public double getOutputBytes() {
+        return outputBytes;
+    }
+
+    @JSExport
+    @JSProperty
+    public int getGenerationCacheHits() {
+        return generationCacheHits;
+    }
+
+    @JSExport
+    @JSProperty
+    public int getGenerationCacheMisses() {
+        return generationCacheMisses;
+    }
+}
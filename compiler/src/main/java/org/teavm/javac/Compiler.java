@@ -16,19 +16,31 @@
 
 package org.teavm.javac;
 
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.PackageSymbol;
+import com.sun.tools.javac.code.Types;
+import com.sun.tools.javac.comp.Annotate;
+import com.sun.tools.javac.comp.Check;
+import com.sun.tools.javac.comp.CompileStates;
+import com.sun.tools.javac.comp.Enter;
+import com.sun.tools.javac.comp.Modules;
 import com.sun.tools.javac.main.JavaCompiler;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.TreeMaker;
 import com.sun.tools.javac.util.Context;
-import java.io.ByteArrayInputStream;
+import com.sun.tools.javac.util.ListBuffer;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 import javax.tools.DiagnosticListener;
 import javax.tools.JavaFileManager;
@@ -39,7 +51,10 @@ import org.teavm.backend.wasm.WasmGCTarget;
 import org.teavm.classlib.impl.JCLPlugin;
 import org.teavm.jso.JSClass;
 import org.teavm.jso.JSExport;
+import org.teavm.jso.core.JSArrayReader;
 import org.teavm.jso.core.JSObjects;
+import org.teavm.jso.core.JSNumber;
+import org.teavm.jso.core.JSPromise;
 import org.teavm.jso.impl.JSOPlugin;
 import org.teavm.jso.typedarrays.Int8Array;
 import org.teavm.model.ClassHolderSource;
@@ -49,29 +64,98 @@ import org.teavm.parsing.CompositeClassHolderSource;
 import org.teavm.parsing.resource.CompositeResourceProvider;
 import org.teavm.parsing.resource.ResourceProvider;
 import org.teavm.platform.plugin.PlatformPlugin;
+import org.teavm.vm.TeaVM;
 import org.teavm.vm.TeaVMBuilder;
 import org.teavm.vm.TeaVMOptimizationLevel;
 import static com.sun.tools.javac.comp.CompileStates.CompileState;
 
 @JSClass(name = "Compiler")
 public final class Compiler {
-    private final Map<String, FileData> sourceFiles = new LinkedHashMap<>();
-    private final Map<String, FileData> classFiles = new LinkedHashMap<>();
-    private final Map<String, FileData> sdkFiles = new LinkedHashMap<>();
-    private final Map<String, FileData> teavmClasslibFiles = new LinkedHashMap<>();
-    private final Map<String, FileData> outputFiles = new LinkedHashMap<>();
-    private final Map<String, FileData> wasmOutputFiles = new LinkedHashMap<>();
+    private final FileSet sourceFiles = new FileSet();
+    private final FileSet classFiles = new FileSet();
+    private final FileSet sdkFiles = new FileSet();
+    private final FileSet teavmClasslibFiles = new FileSet();
+    private final FileSet outputFiles = new FileSet();
+    private final FileSet wasmOutputFiles = new FileSet();
     private SimpleJavaCompiler compiler;
+    private boolean persistentSession;
     private List<DiagnosticListenerRegistration> diagnosticListeners = new ArrayList<>();
+    private List<PhaseListenerRegistration> phaseListeners = new ArrayList<>();
     private ResourceProvider resourceProvider;
+    // Providers keep resource objects between builds and only drop them when files change
+    private final ResourceProvider outputResourceProvider = new MemoryResourceProvider(List.of(outputFiles));
+    private final ResourceProvider incrementalResourceProvider = new MemoryResourceProvider(List.of(outputFiles,
+            teavmClasslibFiles, classFiles));
     private ClassHolderSource classSource;
+    private IncrementalCache incrementalCache;
+    private final ResultCache resultCache = new ResultCache();
+    private final Decompressor decompressor;
+    private BuildStats currentStats;
+    private BuildStats lastBuildStats;
+    private final BuildStats cumulativeStats = new BuildStats("all");
+    private String analyzedInputs;
+    private SymbolIndex sdkSymbols;
+    private int sdkSymbolsVersion = -1;
+    private SymbolIndex classPathSymbols;
+    private int classPathSymbolsVersion = -1;
+    private final Map<String, SourceTree> analyzedFiles = new HashMap<>();
 
     Compiler() {
+        this(JavaDecompressor.INSTANCE);
+    }
+
+    Compiler(Decompressor decompressor) {
+        this.decompressor = decompressor;
     }
 
     @JSExport
     public void addSourceFile(String name, String content) {
-        addFile(sourceFiles, name, content.getBytes(StandardCharsets.UTF_8));
+        addSourceFile(sourceFiles, name, content);
+    }
+
+    @JSExport
+    public void addSourceFiles(JSArrayReader<SourceFileInput> files) {
+        for (var i = 0; i < files.getLength(); ++i) {
+            var file = files.get(i);
+            addSourceFile(sourceFiles, file.getName(), file.getContent());
+        }
+    }
+
+    private static void addSourceFile(FileSet files, String name, String content) {
+        var file = files.add(name);
+        file.lastModified = System.currentTimeMillis();
+        file.setLoader(() -> content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @JSExport
+    public boolean removeSourceFile(String name) {
+        var file = sourceFiles.get(name);
+        return file != null && sourceFiles.remove(name, file);
+    }
+
+    @JSExport
+    public String getSourceFile(String name) {
+        var file = sourceFiles.get(name);
+        return file != null ? file.getCharContent(false).toString() : null;
+    }
+
+    // Edits are applied one after another, either all of them or none
+    @JSExport
+    public void patchSourceFile(String name, JSArrayReader<SourceFileEdit> edits) {
+        var content = getSourceFile(name);
+        if (content == null) {
+            throw new IllegalArgumentException("Source file not found: " + name);
+        }
+        var builder = new StringBuilder(content);
+        for (var i = 0; i < edits.getLength(); ++i) {
+            var edit = edits.get(i);
+            if (edit.getStart() < 0 || edit.getEnd() < edit.getStart() || edit.getEnd() > builder.length()) {
+                throw new IllegalArgumentException("Range " + edit.getStart() + ".." + edit.getEnd()
+                        + " is out of bounds of " + name + " (" + builder.length() + " characters)");
+            }
+            builder.replace(edit.getStart(), edit.getEnd(), edit.getText());
+        }
+        addSourceFile(sourceFiles, name, builder.toString());
     }
 
     @JSExport
@@ -84,14 +168,29 @@ public final class Compiler {
         addFile(classFiles, name, content);
     }
 
+    @JSExport
+    public void addClassFiles(JSArrayReader<BinaryFileInput> files) {
+        addFiles(classFiles, files);
+    }
+
+    // javac reads output files, but they are not part of result cache keys, since javac itself writes them.
+    // Instead, cached results are dropped when output files are changed from outside.
     @JSExport
     public void addOutputClassFile(String name, Int8Array content) {
         addFile(outputFiles, name, content);
+        resultCache.clear();
+    }
+
+    @JSExport
+    public void addOutputClassFiles(JSArrayReader<BinaryFileInput> files) {
+        addFiles(outputFiles, files);
+        resultCache.clear();
     }
 
     @JSExport
     public void addOutputJarFile(String name, Int8Array content) throws IOException {
         addJarFile(outputFiles, content);
+        resultCache.clear();
     }
 
     @JSExport
@@ -99,45 +198,96 @@ public final class Compiler {
         addJarFile(classFiles, content);
     }
 
-    private void addJarFile(Map<String, FileData> target, Int8Array content) throws IOException {
-        try (var input = new ZipInputStream(new ByteArrayInputStream(content.copyToJavaArray()))) {
-            while (true) {
-                var entry = input.getNextEntry();
-                if (entry == null) {
-                    break;
-                }
-                addFile(target, entry.getName(), input.readAllBytes());
+    @JSExport
+    public void addJarFiles(JSArrayReader<Int8Array> contents) throws IOException {
+        for (var i = 0; i < contents.getLength(); ++i) {
+            addJarFile(classFiles, contents.get(i));
+        }
+    }
+
+    private void addJarFile(FileSet target, Int8Array content) throws IOException {
+        var zip = new ZipIndex(new ZipIndex.Source() {
+            @Override
+            public int size() {
+                return content.getLength();
             }
+
+            @Override
+            public byte[] read(int offset, int length) {
+                return new Int8Array(content.getBuffer(), content.getByteOffset() + offset, length)
+                        .copyToJavaArray();
+            }
+        }, decompressor);
+        for (var entry : zip.getEntries()) {
+            var file = target.add(entry.name);
+            file.lastModified = System.currentTimeMillis();
+            file.setLoader(zip.getLoader(entry));
+            file.setHash(ContentHash.update(ContentHash.update(ContentHash.EMPTY, entry.crc), entry.size));
         }
     }
 
     @JSExport
     public void setSdk(Int8Array content) throws IOException {
-        try (var input = new ArchiveReader(new ByteArrayInputStream(content.copyToJavaArray()))) {
-            while (true) {
-                var entry = input.readNext();
-                if (entry == null) {
-                    break;
-                }
-                var file = addFile(sdkFiles, entry, input.readData());
-                file.isJavaBase = true;
-            }
+        setSdk(content.copyToJavaArray());
+    }
+
+    void setSdk(byte[] content) throws IOException {
+        sdkFiles.clear();
+        var archive = new ArchiveReader(content, decompressor);
+        var archiveHash = archive.getContentHash();
+        for (var entry : archive.getEntries()) {
+            var file = addArchiveEntry(sdkFiles, archive, entry, archiveHash);
+            file.isJavaBase = true;
         }
     }
 
     @JSExport
     public void setTeaVMClasslib(Int8Array content) throws IOException {
-        try (var input = new ArchiveReader(new ByteArrayInputStream(content.copyToJavaArray()))) {
-            while (true) {
-                var entry = input.readNext();
-                if (entry == null) {
-                    break;
-                }
-                addFile(teavmClasslibFiles, entry, input.readData());
-            }
+        setTeaVMClasslib(content.copyToJavaArray());
+    }
+
+    void setTeaVMClasslib(byte[] content) throws IOException {
+        teavmClasslibFiles.clear();
+        classSource = null;
+        var archive = new ArchiveReader(content, decompressor);
+        var archiveHash = archive.getContentHash();
+        for (var entry : archive.getEntries()) {
+            addArchiveEntry(teavmClasslibFiles, archive, entry, archiveHash);
         }
     }
 
+    // Loaders accept archive in chunks, so that it can be read while being downloaded.
+    // Previous archive is discarded immediately, new one is usable when loader finishes.
+    @JSExport
+    public ArchiveLoader createSdkLoader() {
+        return new ArchiveLoader(sdkFiles, true, decompressor);
+    }
+
+    @JSExport
+    public ArchiveLoader createTeaVMClasslibLoader() {
+        classSource = null;
+        return new ArchiveLoader(teavmClasslibFiles, false, decompressor);
+    }
+
+    // Inflates class library and class path files in background, so that javac and TeaVM don't have to
+    @JSExport
+    public JSPromise<JSNumber> inflateNatively() {
+        if (!NativeInflation.isSupported()) {
+            return JSPromise.resolve(JSNumber.valueOf(0));
+        }
+        return NativeInflation.inflateAll(List.of(sdkFiles, teavmClasslibFiles, classFiles))
+                .then(JSNumber::valueOf);
+    }
+
+    private FileData addArchiveEntry(FileSet files, ArchiveReader archive, ArchiveReader.Entry entry,
+            long archiveHash) {
+        var file = files.add(entry.getName());
+        file.lastModified = System.currentTimeMillis();
+        file.setLoader(archive.getLoader(entry));
+        file.setHash(archiveHash);
+        return file;
+    }
+
     @JSExport
     public void clearInputClassFiles() {
         classFiles.clear();
@@ -146,6 +296,7 @@ public final class Compiler {
     @JSExport
     public void clearOutputFiles() {
         outputFiles.clear();
+        resultCache.clear();
     }
 
     @JSExport
@@ -154,21 +305,21 @@ public final class Compiler {
         if (data == null) {
             return null;
         }
-        return Int8Array.copyFromJavaArray(data.data);
+        return Int8Array.copyFromJavaArray(data.getData());
     }
 
     @JSExport
     public String[] listOutputFiles() {
-        return outputFiles.keySet().toArray(String[]::new);
+        return outputFiles.getPaths().toArray(String[]::new);
     }
 
     @JSExport
     public Int8Array getOutputJar() throws IOException {
         var output = new ByteArrayOutputStream();
         try (var zip = new ZipOutputStream(output)) {
-            for (var file : outputFiles.values()) {
+            for (var file : outputFiles.getFiles()) {
                 zip.putNextEntry(new ZipEntry(file.path));
-                zip.write(file.data);
+                zip.write(file.getData());
                 zip.closeEntry();
             }
         }
@@ -182,54 +333,300 @@ public final class Compiler {
         if (data == null) {
             return null;
         }
-        return Int8Array.copyFromJavaArray(data.data);
+        return Int8Array.copyFromJavaArray(data.getData());
     }
 
     @JSExport
     public String[] listWebAssemblyOutputFiles() {
-        return wasmOutputFiles.keySet().toArray(String[]::new);
+        return wasmOutputFiles.getPaths().toArray(String[]::new);
     }
 
     @JSExport
     public Int8Array getWebAssemblyOutputArchive() throws IOException {
         var output = new ByteArrayOutputStream();
         try (var zip = new ZipOutputStream(output)) {
-            for (var file : wasmOutputFiles.values()) {
+            for (var file : wasmOutputFiles.getFiles()) {
                 zip.putNextEntry(new ZipEntry(file.path));
-                zip.write(file.data);
+                zip.write(file.getData());
                 zip.closeEntry();
             }
         }
         return Int8Array.copyFromJavaArray(output.toByteArray());
     }
 
-    private FileData addFile(Map<String, FileData> files, String name, Int8Array content) {
-        return addFile(files, name, content.copyToJavaArray());
+    private void addFiles(FileSet target, JSArrayReader<BinaryFileInput> files) {
+        for (var i = 0; i < files.getLength(); ++i) {
+            var file = files.get(i);
+            addFile(target, file.getName(), file.getContent());
+        }
     }
 
-    private FileData addFile(Map<String, FileData> files, String name, byte[] content) {
-        var data = new FileData(files);
+    // Content is copied to Java heap only when javac or TeaVM actually reads the file,
+    // hash is computed in place so that computing cache keys does not force the copy
+    private void addFile(FileSet files, String name, Int8Array content) {
+        var data = files.add(name);
         data.lastModified = System.currentTimeMillis();
-        data.path = name;
-        data.data = content;
-        files.put(name, data);
-        return data;
+        data.setLoader(content::copyToJavaArray);
+        data.setHash(ContentHash.ofJavaScript(content));
+    }
+
+    @JSExport
+    public void setPersistentSession(boolean persistentSession) {
+        this.persistentSession = persistentSession;
+        if (!persistentSession) {
+            compiler = null;
+        }
+    }
+
+    @JSExport
+    public void setResultCacheCapacity(int bytes) {
+        resultCache.setCapacity(bytes);
+    }
+
+    @JSExport
+    public void setResultCacheEntryCapacity(int entries) {
+        resultCache.setEntryCapacity(entries);
+    }
+
+    @JSExport
+    public int getResultCacheHitCount() {
+        return resultCache.getHitCount();
+    }
+
+    @JSExport
+    public int getResultCacheMissCount() {
+        return resultCache.getMissCount();
     }
 
     @JSExport
     public boolean compile() {
-        initCompiler();
+        return measured("compile", outputFiles, () -> {
+            if (!resultCache.isEnabled()) {
+                return compileUncached();
+            }
+            var key = "javac:" + Long.toHexString(sourceFiles.getDigest()) + ":"
+                    + Long.toHexString(classFiles.getDigest()) + ":" + Long.toHexString(sdkFiles.getDigest());
+            return cached(key, outputFiles, this::compileUncached);
+        });
+    }
+
+    // Reports the same diagnostics as compile, but stops after flow analysis and writes no class files
+    @JSExport
+    public boolean check() {
+        return measured("check", outputFiles, () -> {
+            if (!resultCache.isEnabled()) {
+                return checkUncached();
+            }
+            var key = "check:" + Long.toHexString(sourceFiles.getDigest()) + ":"
+                    + Long.toHexString(classFiles.getDigest()) + ":" + Long.toHexString(sdkFiles.getDigest());
+            return cached(key, outputFiles, this::checkUncached);
+        });
+    }
+
+    // Stats of the last compile, check or generateWebAssembly call, null if there were none
+    @JSExport
+    public BuildStats getLastBuildStats() {
+        return lastBuildStats;
+    }
+
+    // Sum of stats of all compile, check and generateWebAssembly calls
+    @JSExport
+    public BuildStats getCumulativeStats() {
+        return cumulativeStats;
+    }
+
+    private boolean measured(String operation, FileSet output, BooleanSupplier action) {
+        var stats = new BuildStats(operation);
+        stats.buildCount = 1;
+        var startTime = System.currentTimeMillis();
+        var startVersion = output.getContentVersion();
+        var sdkReads = sdkFiles.getReadCount();
+        var classlibReads = teavmClasslibFiles.getReadCount();
+        var classPathReads = classFiles.getReadCount();
+        var decodedBytes = decodedBytes();
+        currentStats = stats;
         try {
-            return compiler.simpleCompile();
+            return action.getAsBoolean();
         } finally {
-            compiler = null;
+            currentStats = null;
+            stats.duration = (int) (System.currentTimeMillis() - startTime);
+            stats.sdkFilesRead = sdkFiles.getReadCount() - sdkReads;
+            stats.classlibFilesRead = teavmClasslibFiles.getReadCount() - classlibReads;
+            stats.classPathFilesRead = classFiles.getReadCount() - classPathReads;
+            stats.decodedBytes = decodedBytes() - decodedBytes;
+            for (var file : output.getFilesWrittenSince(startVersion)) {
+                stats.outputFiles++;
+                stats.outputBytes += file.getData().length;
+            }
+            lastBuildStats = stats;
+            cumulativeStats.add(stats);
+        }
+    }
+
+    private long decodedBytes() {
+        return sdkFiles.getDecodedBytes() + teavmClasslibFiles.getDecodedBytes() + classFiles.getDecodedBytes()
+                + outputFiles.getDecodedBytes();
+    }
+
+    // Parses and attributes all source files and returns tree of the given one. Unlike compile and check,
+    // attribution continues after errors. Trees of all source files attributed in the same run are built
+    // at once and kept until any input changes.
+    @JSExport
+    public SourceTree analyze(String name) {
+        var file = sourceFiles.get(name);
+        if (file == null) {
+            throw new IllegalArgumentException("Source file not found: " + name);
+        }
+        var inputs = Long.toHexString(sourceFiles.getDigest()) + ":" + Long.toHexString(classFiles.getDigest())
+                + ":" + Long.toHexString(sdkFiles.getDigest());
+        if (!inputs.equals(analyzedInputs)) {
+            analyzedInputs = inputs;
+            analyzedFiles.clear();
         }
+        var tree = analyzedFiles.get(name);
+        if (tree != null) {
+            return tree;
+        }
+        measured("analyze", outputFiles, () -> runJavac(false, true, units -> {
+            for (var unit : units) {
+                if (unit.sourcefile instanceof FileData source && sourceFiles.get(source.path) == source) {
+                    analyzedFiles.put(source.path, SourceTreeBuilder.build(compiler.getTypes(), unit, source.path));
+                }
+            }
+        }));
+        return analyzedFiles.get(name);
+    }
+
+    // Completion queries are answered from index of SDK and class path, built on first query after
+    // they change. SDK archives produced by generateClassLib carry precomputed index.
+    @JSExport
+    public CompletionItem[] completeType(String prefix, int limit) {
+        var result = new ArrayList<CompletionItem>();
+        SymbolIndex.completeType(symbolIndexes(), prefix, limit, result);
+        return result.toArray(new CompletionItem[0]);
+    }
+
+    @JSExport
+    public CompletionItem[] completePackage(String packageName, String prefix, int limit) {
+        var result = new ArrayList<CompletionItem>();
+        SymbolIndex.completePackage(symbolIndexes(), packageName.replace('.', '/'), prefix, limit, result);
+        return result.toArray(new CompletionItem[0]);
+    }
+
+    @JSExport
+    public CompletionItem[] completeMember(String className, String prefix, boolean staticOnly, int limit) {
+        var result = new ArrayList<CompletionItem>();
+        SymbolIndex.completeMember(symbolIndexes(), className.replace('.', '/'), prefix, staticOnly, limit,
+                result);
+        return result.toArray(new CompletionItem[0]);
+    }
+
+    private List<SymbolIndex> symbolIndexes() {
+        if (sdkSymbolsVersion != sdkFiles.getModificationCount()) {
+            sdkSymbolsVersion = sdkFiles.getModificationCount();
+            sdkSymbols = readSymbolIndex(sdkFiles);
+        }
+        if (classPathSymbolsVersion != classFiles.getModificationCount()) {
+            classPathSymbolsVersion = classFiles.getModificationCount();
+            var builder = new SymbolIndex.Builder();
+            builder.addClasses(classFiles);
+            classPathSymbols = builder.build();
+        }
+        return List.of(sdkSymbols, classPathSymbols);
+    }
+
+    private static SymbolIndex readSymbolIndex(FileSet files) {
+        var file = files.get(SymbolIndex.ARCHIVE_ENTRY);
+        if (file != null) {
+            try {
+                return SymbolIndex.read(file.getData());
+            } catch (IOException e) {
+                // Index of unknown version, build it from class files
+            }
+        }
+        var builder = new SymbolIndex.Builder();
+        builder.addClasses(files);
+        return builder.build();
+    }
+
+    private boolean compileUncached() {
+        return runJavac(true, false, null);
+    }
+
+    private boolean checkUncached() {
+        return runJavac(false, false, null);
+    }
+
+    private boolean runJavac(boolean generate, boolean attributeErrors,
+            Consumer<List<JCCompilationUnit>> unitConsumer) {
+        var phases = new PhaseTracker("javac", phaseListeners, currentStats);
+        try {
+            phases.start("init");
+            initCompiler();
+            if (!attributeErrors) {
+                return compiler.simpleCompile(phases, generate, unitConsumer);
+            }
+            var stopPolicy = compiler.shouldStopPolicyIfError;
+            compiler.shouldStopPolicyIfError = CompileState.ATTR;
+            try {
+                return compiler.simpleCompile(phases, generate, unitConsumer);
+            } finally {
+                compiler.shouldStopPolicyIfError = stopPolicy;
+            }
+        } finally {
+            phases.finish();
+            if (!persistentSession) {
+                compiler = null;
+            }
+        }
+    }
+
+    // Either replays result of a previous run with the same inputs, or runs given action and records
+    // files it writes along with reported diagnostics.
+    private boolean cached(String key, FileSet output, BooleanSupplier action) {
+        var result = resultCache.get(key);
+        if (result != null) {
+            if (currentStats != null) {
+                currentStats.resultCacheHits++;
+            }
+            for (var entry : result.files.entrySet()) {
+                var file = output.add(entry.getKey());
+                file.lastModified = System.currentTimeMillis();
+                file.setData(entry.getValue());
+            }
+            for (var diagnostic : result.diagnostics) {
+                for (var reg : List.copyOf(diagnosticListeners)) {
+                    reg.listener.onDiagnostic(diagnostic);
+                }
+            }
+            return result.successful;
+        }
+
+        var diagnostics = new ArrayList<BaseDiagnostic>();
+        var reg = new DiagnosticListenerRegistration(diagnosticListeners, diagnostics::add);
+        diagnosticListeners.add(reg);
+        var startVersion = output.getContentVersion();
+        boolean successful;
+        try {
+            successful = action.getAsBoolean();
+        } finally {
+            reg.destroy();
+        }
+        result = new ResultCache.Result(successful);
+        for (var diagnostic : diagnostics) {
+            result.addDiagnostic(diagnostic);
+        }
+        for (var file : output.getFilesWrittenSince(startVersion)) {
+            result.addFile(file.path, file.getData());
+        }
+        resultCache.put(key, result);
+        return successful;
     }
 
     @JSExport
     public String[] detectMainClasses() throws IOException {
         var mainClasses = new ArrayList<String>();
-        for (var file : outputFiles.values()) {
+        for (var file : outputFiles.getFiles()) {
             if (file.getName().endsWith(".class")) {
                 var finder = new MainMethodFinder();
                 try (var input = file.openInputStream()) {
@@ -244,6 +641,25 @@ public final class Compiler {
         return mainClasses.toArray(new String[0]);
     }
 
+    @JSExport
+    public void setIncrementalGeneration(boolean incrementalGeneration) {
+        if (!incrementalGeneration) {
+            incrementalCache = null;
+        } else if (incrementalCache == null) {
+            incrementalCache = new IncrementalCache();
+        }
+    }
+
+    @JSExport
+    public int getGenerationCacheHitCount() {
+        return incrementalCache != null ? incrementalCache.getHitCount() : 0;
+    }
+
+    @JSExport
+    public int getGenerationCacheMissCount() {
+        return incrementalCache != null ? incrementalCache.getMissCount() : 0;
+    }
+
     @JSExport
     public boolean generateWebAssembly(WebAssemblyCompilationOptions options) {
         var outputName = options.getOutputName() != null && !JSObjects.isUndefined(options.getOutputName())
@@ -252,26 +668,69 @@ public final class Compiler {
         if (JSObjects.isUndefined(options.getMainClass()) || options.getMainClass() == null) {
             throw new IllegalArgumentException("Main class not specified");
         }
-        var mainClass = options.getMainClass().stringValue();
+        return generateWebAssembly(outputName, options.getMainClass().stringValue());
+    }
 
+    boolean generateWebAssembly(String outputName, String mainClass) {
+        return measured("generate-webassembly", wasmOutputFiles, () -> {
+            if (!resultCache.isEnabled()) {
+                return generateWebAssemblyUncached(outputName, mainClass);
+            }
+            var key = "wasm:" + Long.toHexString(outputFiles.getDigest()) + ":"
+                    + Long.toHexString(classFiles.getDigest()) + ":" + Long.toHexString(teavmClasslibFiles.getDigest())
+                    + ":" + (incrementalCache != null) + ":" + outputName + ":" + mainClass;
+            return cached(key, wasmOutputFiles, () -> generateWebAssemblyUncached(outputName, mainClass));
+        });
+    }
+
+    private boolean generateWebAssemblyUncached(String outputName, String mainClass) {
+        var phases = new PhaseTracker("teavm", phaseListeners, currentStats);
+        try {
+            phases.start("setup");
+            return generateWebAssemblyUncached(outputName, mainClass, phases);
+        } finally {
+            phases.finish();
+        }
+    }
+
+    private boolean generateWebAssemblyUncached(String outputName, String mainClass, PhaseTracker phases) {
         var target = new WasmGCTarget();
-        var refCache = new ReferenceCache();
-        if (classSource == null) {
-            resourceProvider = new MemoryResourceProvider(List.of(teavmClasslibFiles, classFiles, outputFiles));
-            classSource = new ClasspathClassHolderSource(resourceProvider, refCache);
-        }
-        var currentResourceProvider = new CompositeResourceProvider(new MemoryResourceProvider(List.of(outputFiles)),
-                resourceProvider);
-        var currentClassSource = new CompositeClassHolderSource(List.of(
-                new ClasspathClassHolderSource(currentResourceProvider, refCache), classSource));
-        var teavm = new TeaVMBuilder(target)
-                .setClassSource(currentClassSource)
-                .setResourceProvider(currentResourceProvider)
-                .setReferenceCache(refCache)
-                .setObfuscated(true)
-                .setStrict(true)
-                .build();
-        teavm.setOptimizationLevel(TeaVMOptimizationLevel.ADVANCED);
+        TeaVM teavm;
+        if (incrementalCache != null) {
+            var refCache = incrementalCache.referenceCache;
+            var currentResourceProvider = incrementalResourceProvider;
+            incrementalCache.update(teavmClasslibFiles, List.of(classFiles, outputFiles),
+                    new ClasspathClassHolderSource(currentResourceProvider, refCache));
+            teavm = new TeaVMBuilder(target)
+                    .setClassSource(incrementalCache.classSource)
+                    .setResourceProvider(currentResourceProvider)
+                    .setReferenceCache(refCache)
+                    .setObfuscated(true)
+                    .setStrict(true)
+                    .build();
+            teavm.setProgramCache(incrementalCache);
+            teavm.setCacheStatus(incrementalCache.getCacheStatus());
+            teavm.setOptimizationLevel(TeaVMOptimizationLevel.SIMPLE);
+            teavm.addVirtualMethods(m -> true);
+        } else {
+            var refCache = new ReferenceCache();
+            if (classSource == null) {
+                resourceProvider = new MemoryResourceProvider(List.of(teavmClasslibFiles, classFiles, outputFiles));
+                classSource = new ClasspathClassHolderSource(resourceProvider, refCache);
+            }
+            var currentResourceProvider = new CompositeResourceProvider(
+                    outputResourceProvider, resourceProvider);
+            var currentClassSource = new CompositeClassHolderSource(List.of(
+                    new ClasspathClassHolderSource(currentResourceProvider, refCache), classSource));
+            teavm = new TeaVMBuilder(target)
+                    .setClassSource(currentClassSource)
+                    .setResourceProvider(currentResourceProvider)
+                    .setReferenceCache(refCache)
+                    .setObfuscated(true)
+                    .setStrict(true)
+                    .build();
+            teavm.setOptimizationLevel(TeaVMOptimizationLevel.ADVANCED);
+        }
         new JSOPlugin().install(teavm);
         new PlatformPlugin().install(teavm);
         new JCLPlugin().install(teavm);
@@ -279,7 +738,9 @@ public final class Compiler {
         target.setObfuscated(false);
         target.setDebugInfoLocation(WasmDebugInfoLocation.EMBEDDED);
         target.setDebugInfo(true);
+        teavm.setProgressListener(phases);
         teavm.build(new MemoryBuildTarget(wasmOutputFiles), outputName);
+        phases.finish();
         if (!diagnosticListeners.isEmpty()) {
             for (var problem : teavm.getProblemProvider().getProblems()) {
                 var wrapper = new TeaVMDiagnostic(problem);
@@ -288,7 +749,19 @@ public final class Compiler {
                 }
             }
         }
-        return teavm.getProblemProvider().getSevereProblems().isEmpty();
+        var successful = teavm.getProblemProvider().getSevereProblems().isEmpty();
+        if (incrementalCache != null) {
+            if (currentStats != null) {
+                currentStats.generationCacheHits = incrementalCache.getHitCount();
+                currentStats.generationCacheMisses = incrementalCache.getMissCount();
+            }
+            if (successful) {
+                incrementalCache.commit();
+            } else {
+                incrementalCache.discard();
+            }
+        }
+        return successful;
     }
 
     @JSExport
@@ -298,21 +771,45 @@ public final class Compiler {
         return reg;
     }
 
+    @JSExport
+    public ListenerRegistration onPhase(CompilerPhaseListener phaseListener) {
+        var reg = new PhaseListenerRegistration(phaseListeners, phaseListener);
+        phaseListeners.add(reg);
+        return reg;
+    }
+
     private void initCompiler() {
         if (compiler != null) {
-            return;
+            if (compiler.sdkVersion == sdkFiles.getModificationCount()
+                    && compiler.classPathVersion == classFiles.getModificationCount()) {
+                compiler.prepareNextRound();
+                return;
+            }
+            compiler = null;
         }
         var context = new Context();
         context.put(DiagnosticListener.class, new DiagnosticListenerImpl(diagnosticListeners));
         var fileManager = new FileManagerImpl(sourceFiles, classFiles, sdkFiles, outputFiles);
         context.put(JavaFileManager.class, fileManager);
+        SessionLog.preRegister(context);
         compiler = new SimpleJavaCompiler(context);
         compiler.prepare();
     }
 
     private class SimpleJavaCompiler extends JavaCompiler {
+        private final Context context;
+        final int sdkVersion = sdkFiles.getModificationCount();
+        final int classPathVersion = classFiles.getModificationCount();
+        private final ParseTreeCache parseCache;
+
         SimpleJavaCompiler(Context context) {
             super(context);
+            this.context = context;
+            parseCache = persistentSession ? new ParseTreeCache(TreeMaker.instance(context)) : null;
+        }
+
+        Types getTypes() {
+            return types;
         }
 
         void prepare() {
@@ -324,13 +821,83 @@ public final class Compiler {
             }
         }
 
-        boolean simpleCompile() {
-            var files = sourceFiles.values().stream().map(x -> (JavaFileObject) x).toList();
-            var units = stopIfError(CompileState.ENTER, parseFiles(files));
+        boolean simpleCompile(PhaseTracker phases, boolean generate,
+                Consumer<List<JCCompilationUnit>> unitConsumer) {
+            phases.start("parse");
+            var units = stopIfError(CompileState.ENTER, parseSources());
+            phases.start("enter");
             enterTrees(stopIfError(CompileState.ENTER, initModules(units)));
-            generate(desugar(flow(attribute(todo))));
+            phases.start("attribute");
+            var attributed = attribute(todo);
+            phases.start("flow");
+            var analyzed = flow(attributed);
+            if (unitConsumer != null) {
+                unitConsumer.accept(units);
+            }
+            if (!generate) {
+                return log.nerrors == 0;
+            }
+            phases.start("desugar");
+            var desugared = desugar(analyzed);
+            phases.start("generate");
+            generate(desugared);
             return log.nerrors == 0;
         }
+
+        // Files that were parsed without errors or warnings are taken from cache, since cache hits
+        // could not report them again
+        private com.sun.tools.javac.util.List<JCCompilationUnit> parseSources() {
+            if (parseCache == null) {
+                return parseFiles(sourceFiles.getFiles().stream().map(x -> (JavaFileObject) x).toList());
+            }
+            var units = new ListBuffer<JCCompilationUnit>();
+            for (var file : sourceFiles.getFiles()) {
+                var unit = parseCache.get(file);
+                if (unit != null) {
+                    if (currentStats != null) {
+                        currentStats.parseCacheHits++;
+                    }
+                } else {
+                    var errors = log.nerrors;
+                    var warnings = log.nwarnings;
+                    unit = parse(file);
+                    if (log.nerrors == errors && log.nwarnings == warnings) {
+                        unit = parseCache.put(file, unit);
+                    } else {
+                        parseCache.remove(file.path);
+                    }
+                }
+                units.append(unit);
+            }
+            parseCache.retain(sourceFiles.getPaths());
+            return units.toList();
+        }
+
+        // Symbols completed from the SDK and the class path survive between rounds,
+        // while everything that was defined by previously compiled sources is dropped.
+        void prepareNextRound() {
+            var staleClasses = new ArrayList<ClassSymbol>();
+            for (var cls : syms.getAllClasses()) {
+                if (cls.sourcefile instanceof FileData file && file.getOwner() == sourceFiles) {
+                    staleClasses.add(cls);
+                }
+            }
+            for (var cls : staleClasses) {
+                syms.removeClass(cls.packge().modle, cls.flatname);
+                if (cls.owner instanceof PackageSymbol pkg && pkg.members_field != null) {
+                    pkg.members_field.remove(cls);
+                }
+            }
+
+            ((SessionLog) log).clear();
+            newRound();
+            Enter.instance(context).newRound();
+            Types.instance(context).newRound();
+            Check.instance(context).newRound();
+            Modules.instance(context).newRound();
+            Annotate.instance(context).newRound();
+            CompileStates.instance(context).clear();
+        }
     }
 
     static class DiagnosticListenerRegistration extends ListenerRegistration {
@@ -348,4 +915,19 @@ public final class Compiler {
             listeners.remove(this);
         }
     }
+
+    static class PhaseListenerRegistration extends ListenerRegistration {
+        private final List<PhaseListenerRegistration> listeners;
+        CompilerPhaseListener listener;
+
+        PhaseListenerRegistration(List<PhaseListenerRegistration> listeners, CompilerPhaseListener listener) {
+            this.listeners = listeners;
+            this.listener = listener;
+        }
+
+        @Override
+        public void destroy() {
+            listeners.remove(this);
+        }
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.teavm.javac;
+
+import org.teavm.jso.JSExport;
+import org.teavm.jso.JSProperty;
+
+public class CompletionItem {
+    private final String kind;
+    private final String name;
+    private final String qualifiedName;
+    private final String descriptor;
+    private final String signature;
+    private final boolean isStatic;
+
+    CompletionItem(String kind, String name, String qualifiedName, String descriptor, String signature,
+            boolean isStatic) {
+        this.kind = kind;
+        this.name = name;
+        this.qualifiedName = qualifiedName;
+        this.descriptor = descriptor;
+        this.signature = signature;
+        this.isStatic = isStatic;
+    }
+
+    // Either "package", "class", "interface", "enum", "record", "annotation", "method" or "field"
+    @JSExport
+    @JSProperty
+    public String getKind() {
+        return kind;
+    }
+
+    // Text to complete: simple name of type or member, last segment of package name
+    @JSExport
+    @JSProperty
+    public String getName() {
+        return name;
+    }
+
+    // Binary name of type or package, for members binary name of their declaring class
+    @JSExport
+    @JSProperty
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    // JVM descriptor of member, null for types and packages
+    @JSExport
+    @JSProperty
+    public String getDescriptor() {
+        return descriptor;
+    }
+
+    // Generic signature of member, null if member is not generic
+    @JSExport
+    @JSProperty
+    public String getSignature() {
+        return signature;
+    }
+
+    @JSExport
+    @JSProperty
+    public boolean isStatic() {
+        return isStatic;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+// Loader of a compressed file. Keeps compressed data accessible, so that the file can be
+// inflated ahead of time by other means, see FileData.preload.
+final class CompressedEntry implements Supplier<byte[]> {
+    final String name;
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+    // Used instead of data for entries read from storage on demand, like jar entries
+    private final Supplier<byte[]> dataSupplier;
+    final int size;
+    private final Decompressor decompressor;
+
+    CompressedEntry(String name, byte[] data, int offset, int length, int size, Decompressor decompressor) {
+        this.name = name;
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+        dataSupplier = null;
+        this.size = size;
+        this.decompressor = decompressor;
+    }
+
+    CompressedEntry(String name, Supplier<byte[]> dataSupplier, int size, Decompressor decompressor) {
+        this.name = name;
+        data = null;
+        offset = 0;
+        length = 0;
+        this.dataSupplier = dataSupplier;
+        this.size = size;
+        this.decompressor = decompressor;
+    }
+
+    byte[] getCompressedData() {
+        if (data == null) {
+            return dataSupplier.get();
+        }
+        return offset == 0 && length == data.length ? data : Arrays.copyOfRange(data, offset, offset + length);
+    }
+
+    @Override
+    public byte[] get() {
+        try {
+            if (data == null) {
+                var compressed = dataSupplier.get();
+                return decompressor.inflate(compressed, 0, compressed.length, size, name);
+            }
+            return decompressor.inflate(data, offset, length, size, name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
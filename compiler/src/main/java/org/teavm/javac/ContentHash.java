@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.nio.charset.StandardCharsets;
+import org.teavm.jso.JSBody;
+import org.teavm.jso.typedarrays.Int32Array;
+import org.teavm.jso.typedarrays.Int8Array;
+
+// 64-bit FNV-1a, good enough to tell inputs apart while being cheap in WebAssembly
+final class ContentHash {
+    static final long EMPTY = 0xCBF29CE484222325L;
+    private static final long PRIME = 0x100000001B3L;
+
+    private ContentHash() {
+    }
+
+    static long of(byte[] data) {
+        return update(EMPTY, data);
+    }
+
+    static long update(long hash, byte[] data) {
+        for (var b : data) {
+            hash ^= b & 0xFF;
+            hash *= PRIME;
+        }
+        return hash;
+    }
+
+    // Hashes array on JS side, so that content does not have to be copied to Java heap.
+    // Not compatible with of(byte[]), two pairs of 32-bit hashes make up 64-bit one instead.
+    static long ofJavaScript(Int8Array data) {
+        var parts = hashJavaScript(data);
+        return ((long) parts.get(0) << 32) | (parts.get(1) & 0xFFFFFFFFL);
+    }
+
+    @JSBody(params = "data", script = ""
+            + "var h1 = 0x811C9DC5 | 0, h2 = 0x9747B28C | 0;"
+            + "for (var i = 0; i < data.length; ++i) {"
+            + "var b = data[i] & 0xFF;"
+            + "h1 = Math.imul(h1 ^ b, 0x01000193);"
+            + "h2 = Math.imul(h2 ^ b, 0x5BD1E995);"
+            + "h2 ^= h2 >>> 15;"
+            + "}"
+            + "return new Int32Array([h1, h2 ^ data.length]);")
+    private static native Int32Array hashJavaScript(Int8Array data);
+
+    static long update(long hash, String value) {
+        return update(hash, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long update(long hash, long value) {
+        for (var i = 0; i < 8; ++i) {
+            hash ^= value & 0xFF;
+            hash *= PRIME;
+            value >>>= 8;
+        }
+        return hash;
+    }
+}
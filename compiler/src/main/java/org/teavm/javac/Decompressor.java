@@ -0,0 +1,25 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+
+// Inflates raw DEFLATE data of archive and jar entries. Reads performed by javac and TeaVM are synchronous,
+// so this is always done on the calling thread, see NativeInflation for asynchronous alternative.
+interface Decompressor {
+    byte[] inflate(byte[] data, int offset, int length, int size, String name) throws IOException;
+}
@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import org.teavm.javac.protocol.CompilerDiagnosticMessage;
+import org.teavm.javac.protocol.DiagnosticsMessage;
+import org.teavm.javac.protocol.TeaVMDiagnosticMessage;
+import org.teavm.jso.browser.Window;
+import org.teavm.jso.core.JSArray;
+import org.teavm.jso.core.JSObjects;
+
+// Collects diagnostics of a request and sends them in a single message at the end of each phase.
+// Diagnostics beyond the limit are only counted, since cascading errors add nothing but noise.
+class DiagnosticBatch {
+    private final String requestId;
+    private final int limit;
+    private int count;
+    private int suppressed;
+    private JSArray<CompilerDiagnosticMessage> compilerDiagnostics = new JSArray<>();
+    private JSArray<TeaVMDiagnosticMessage> diagnostics = new JSArray<>();
+
+    DiagnosticBatch(String requestId, int limit) {
+        this.requestId = requestId;
+        this.limit = limit;
+    }
+
+    void add(JavaDiagnostic diagnostic) {
+        if (!accept()) {
+            return;
+        }
+        CompilerDiagnosticMessage message = JSObjects.createWithoutProto();
+        message.setSeverity(diagnostic.getSeverity());
+        message.setFileName(diagnostic.getFileName());
+        message.setStartPosition(diagnostic.getStartPosition());
+        message.setPosition(diagnostic.getPosition());
+        message.setEndPosition(diagnostic.getEndPosition());
+        message.setLineNumber(diagnostic.getLineNumber());
+        message.setColumnNumber(diagnostic.getColumnNumber());
+        message.setMessage(diagnostic.getMessage());
+        compilerDiagnostics.push(message);
+    }
+
+    void add(TeaVMDiagnostic diagnostic) {
+        add(diagnostic.getSeverity(), diagnostic.getFileName(), diagnostic.getLineNumber(), diagnostic.getMessage());
+    }
+
+    void add(String severity, String fileName, int lineNumber, String text) {
+        if (!accept()) {
+            return;
+        }
+        TeaVMDiagnosticMessage message = JSObjects.createWithoutProto();
+        message.setSeverity(severity);
+        message.setFileName(fileName);
+        message.setLineNumber(lineNumber);
+        message.setText(text);
+        diagnostics.push(message);
+    }
+
+    private boolean accept() {
+        if (count >= limit) {
+            suppressed++;
+            return false;
+        }
+        count++;
+        return true;
+    }
+
+    void flush() {
+        if (compilerDiagnostics.getLength() > 0 || diagnostics.getLength() > 0) {
+            send(0);
+        }
+    }
+
+    void finish() {
+        if (compilerDiagnostics.getLength() > 0 || diagnostics.getLength() > 0 || suppressed > 0) {
+            send(suppressed);
+        }
+    }
+
+    private void send(int suppressedCount) {
+        DiagnosticsMessage message = JSObjects.createWithoutProto();
+        message.setId(requestId);
+        message.setCommand("diagnostics");
+        message.setCompilerDiagnostics(compilerDiagnostics);
+        message.setDiagnostics(diagnostics);
+        message.setSuppressed(suppressedCount);
+        Window.worker().postMessage(message);
+        compilerDiagnostics = new JSArray<>();
+        diagnostics = new JSArray<>();
+    }
+}
@@ -30,15 +30,21 @@ import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.NestingKind;
 import javax.tools.JavaFileObject;
 
 class FileData implements JavaFileObject {
-    private final Map<String, ?> containingMap;
+    private final FileSet owner;
     static Map<String, Kind> kindByExtension = new HashMap<>();
-    String path;
-    byte[] data = new byte[0];
+    final String path;
+    private byte[] data = new byte[0];
+    private Supplier<byte[]> loader;
+    private long hash;
+    private boolean hashKnown;
+    private boolean read;
+    int contentVersion;
     long lastModified;
     boolean isJavaBase;
 
@@ -50,8 +56,74 @@ class FileData implements JavaFileObject {
         }
     }
 
-    FileData(Map<String, ?> containingMap) {
-        this.containingMap = containingMap;
+    FileData(FileSet owner, String path) {
+        this.owner = owner;
+        this.path = path;
+    }
+
+    FileSet getOwner() {
+        return owner;
+    }
+
+    byte[] getData() {
+        if (loader != null) {
+            data = loader.get();
+            loader = null;
+            owner.decoded(data.length);
+        }
+        if (!read) {
+            read = true;
+            owner.firstRead();
+        }
+        return data;
+    }
+
+    boolean isLoaded() {
+        return loader == null;
+    }
+
+    void setData(byte[] data) {
+        this.data = data;
+        loader = null;
+        hashKnown = false;
+        contentVersion = owner.contentChanged();
+    }
+
+    CompressedEntry getPendingCompressedEntry() {
+        return loader instanceof CompressedEntry entry ? entry : null;
+    }
+
+    // Supplies content of a compressed file inflated by other means. Ignored if the file was loaded
+    // or got another loader meanwhile.
+    boolean preload(CompressedEntry entry, byte[] data) {
+        if (loader != entry || data.length != entry.size) {
+            return false;
+        }
+        this.data = data;
+        loader = null;
+        owner.decoded(data.length);
+        return true;
+    }
+
+    void setLoader(Supplier<byte[]> loader) {
+        this.loader = loader;
+        data = null;
+        hashKnown = false;
+        read = false;
+    }
+
+    long getHash() {
+        if (!hashKnown) {
+            hash = ContentHash.of(getData());
+            hashKnown = true;
+        }
+        return hash;
+    }
+
+    // Allows to specify hash of a lazily loaded file without loading it
+    void setHash(long hash) {
+        this.hash = hash;
+        hashKnown = true;
     }
 
     @Override
@@ -95,7 +167,7 @@ class FileData implements JavaFileObject {
 
     @Override
     public InputStream openInputStream() {
-        return new ByteArrayInputStream(data);
+        return new ByteArrayInputStream(getData());
     }
 
     @Override
@@ -104,7 +176,7 @@ class FileData implements JavaFileObject {
             @Override
             public void close() throws IOException {
                 super.close();
-                data = toByteArray();
+                setData(toByteArray());
                 lastModified = System.currentTimeMillis();
             }
         };
@@ -117,7 +189,7 @@ class FileData implements JavaFileObject {
 
     @Override
     public CharSequence getCharContent(boolean ignoreEncodingErrors) {
-        return new String(data, StandardCharsets.UTF_8);
+        return new String(getData(), StandardCharsets.UTF_8);
     }
 
     @Override
@@ -132,6 +204,6 @@ class FileData implements JavaFileObject {
 
     @Override
     public boolean delete() {
-        return containingMap.remove(path, this);
+        return owner.remove(path, this);
     }
 }
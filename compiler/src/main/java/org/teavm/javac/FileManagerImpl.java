@@ -22,17 +22,15 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 import javax.tools.FileObject;
 import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
 
 class FileManagerImpl implements JavaFileManager {
-    private final Map<Location, Map<String, FileData>> locations = new HashMap<>();
+    private final Map<Location, FileSet> locations = new HashMap<>();
 
-    FileManagerImpl(Map<String, FileData> sourcePath, Map<String, FileData> classPath, Map<String, FileData> sdkPath,
-            Map<String, FileData> outputFiles) {
+    FileManagerImpl(FileSet sourcePath, FileSet classPath, FileSet sdkPath, FileSet outputFiles) {
         locations.put(StandardLocation.SOURCE_PATH, sourcePath);
         locations.put(StandardLocation.CLASS_PATH, classPath);
         locations.put(StandardLocation.CLASS_OUTPUT, outputFiles);
@@ -47,25 +45,11 @@ class FileManagerImpl implements JavaFileManager {
     @Override
     public Iterable<JavaFileObject> list(Location location, String packageName, Set<JavaFileObject.Kind> kinds,
             boolean recurse) {
-        var map = locations.get(location);
-        if (map == null) {
+        var files = locations.get(location);
+        if (files == null) {
             return Collections.emptyList();
         }
-        var stream = map.values().stream();
-        if (!packageName.isEmpty()) {
-            var pathPrefix = packageName.replace('.', '/');
-            stream = stream.filter(file -> {
-                if (!file.path.startsWith(pathPrefix)) {
-                    return false;
-                }
-                return file.path.length() == pathPrefix.length() || file.path.charAt(pathPrefix.length()) == '/';
-            });
-        }
-        if (!recurse) {
-            stream = stream.filter(file -> file.path.indexOf('/', packageName.length() + 1) < 0);
-        }
-
-        return stream.collect(Collectors.toList());
+        return files.list(packageName.replace('.', '/'), kinds, recurse);
     }
 
     @Override
@@ -95,7 +79,15 @@ class FileManagerImpl implements JavaFileManager {
 
     @Override
     public JavaFileObject getJavaFileForInput(Location location, String className, JavaFileObject.Kind kind) {
-        return getFileForInput(location, "", className.replace('.', '/') + kind.extension);
+        var files = locations.get(location);
+        if (files == null) {
+            return null;
+        }
+        var path = className.replace('.', '/');
+        if (!files.hasPackage(FileSet.packageOf(path))) {
+            return null;
+        }
+        return files.get(path + kind.extension);
     }
 
     @Override
@@ -106,37 +98,31 @@ class FileManagerImpl implements JavaFileManager {
 
     @Override
     public FileData getFileForInput(Location location, String packageName, String relativeName) {
-        var map = locations.get(location);
-        if (map == null) {
+        var files = locations.get(location);
+        if (files == null) {
             return null;
         }
-        var sb = new StringBuilder();
-        if (!packageName.isEmpty()) {
-            sb.append(packageName.replace('.', '/')).append('/');
+        var packagePath = packageName.replace('.', '/');
+        if (relativeName.indexOf('/') < 0 && !files.hasPackage(packagePath)) {
+            return null;
         }
-        var path = sb.append(relativeName).toString();
-        return map.get(path);
+        var path = packagePath.isEmpty() ? relativeName : packagePath + "/" + relativeName;
+        return files.get(path);
     }
 
     @Override
     public FileData getFileForOutput(Location location, String packageName, String relativeName,
             FileObject sibling) {
-        var map = locations.get(location);
-        if (map == null) {
+        var files = locations.get(location);
+        if (files == null) {
             return null;
         }
-        var sb = new StringBuilder();
-        if (!packageName.isEmpty()) {
-            sb.append(packageName.replace('.', '/')).append('/');
-        }
-        var path = sb.append(relativeName).toString();
-        var result = map.get(path);
+        var packagePath = packageName.replace('.', '/');
+        var path = packagePath.isEmpty() ? relativeName : packagePath + "/" + relativeName;
+        var result = files.get(path);
         if (result == null) {
-            result = new FileData(map);
-            result.path = path;
-            result.data = new byte[0];
+            result = files.add(path);
             result.lastModified = System.currentTimeMillis();
-            map.put(path, result);
         }
         return result;
     }
@@ -0,0 +1,212 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.tools.JavaFileObject;
+
+class FileSet {
+    private final Map<String, FileData> files = new LinkedHashMap<>();
+    private final Map<String, PackageFiles> packages = new HashMap<>();
+    private int modificationCount;
+    private int contentVersion;
+    private long digest;
+    private int digestModificationCount = -1;
+    private int digestContentVersion = -1;
+    private int readCount;
+    private long decodedBytes;
+
+    FileData get(String path) {
+        return files.get(path);
+    }
+
+    FileData add(String path) {
+        var file = new FileData(this, path);
+        var old = files.put(path, file);
+        if (old != null) {
+            unindex(old);
+        }
+        index(file);
+        modificationCount++;
+        return file;
+    }
+
+    boolean remove(String path, FileData file) {
+        if (!files.remove(path, file)) {
+            return false;
+        }
+        unindex(file);
+        modificationCount++;
+        return true;
+    }
+
+    void clear() {
+        if (files.isEmpty()) {
+            return;
+        }
+        files.clear();
+        packages.clear();
+        modificationCount++;
+    }
+
+    boolean isEmpty() {
+        return files.isEmpty();
+    }
+
+    int size() {
+        return files.size();
+    }
+
+    Collection<FileData> getFiles() {
+        return Collections.unmodifiableCollection(files.values());
+    }
+
+    Set<String> getPaths() {
+        return Collections.unmodifiableSet(files.keySet());
+    }
+
+    int getModificationCount() {
+        return modificationCount;
+    }
+
+    // Number of files read for the first time since they were added
+    int getReadCount() {
+        return readCount;
+    }
+
+    // Number of bytes produced by lazy loaders of files
+    long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    void firstRead() {
+        readCount++;
+    }
+
+    void decoded(int size) {
+        decodedBytes += size;
+    }
+
+    int contentChanged() {
+        return ++contentVersion;
+    }
+
+    int getContentVersion() {
+        return contentVersion;
+    }
+
+    List<FileData> getFilesWrittenSince(int version) {
+        var result = new ArrayList<FileData>();
+        for (var file : files.values()) {
+            if (file.contentVersion > version) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    long getDigest() {
+        if (digestModificationCount != modificationCount || digestContentVersion != contentVersion) {
+            var hash = ContentHash.EMPTY;
+            for (var file : files.values()) {
+                hash = ContentHash.update(hash, file.path);
+                hash = ContentHash.update(hash, file.getHash());
+            }
+            digest = hash;
+            digestModificationCount = modificationCount;
+            digestContentVersion = contentVersion;
+        }
+        return digest;
+    }
+
+    boolean hasPackage(String packagePath) {
+        return packages.containsKey(packagePath);
+    }
+
+    List<JavaFileObject> list(String packagePath, Set<JavaFileObject.Kind> kinds, boolean recurse) {
+        var result = new ArrayList<JavaFileObject>();
+        if (!recurse) {
+            collect(packages.get(packagePath), kinds, result);
+        } else {
+            for (var entry : packages.entrySet()) {
+                if (isSubpackage(entry.getKey(), packagePath)) {
+                    collect(entry.getValue(), kinds, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isSubpackage(String candidate, String packagePath) {
+        if (packagePath.isEmpty()) {
+            return true;
+        }
+        return candidate.startsWith(packagePath) && (candidate.length() == packagePath.length()
+                || candidate.charAt(packagePath.length()) == '/');
+    }
+
+    private static void collect(PackageFiles packageFiles, Set<JavaFileObject.Kind> kinds,
+            List<JavaFileObject> result) {
+        if (packageFiles == null) {
+            return;
+        }
+        for (var kind : kinds) {
+            var filesOfKind = packageFiles.filesByKind.get(kind);
+            if (filesOfKind != null) {
+                result.addAll(filesOfKind.values());
+            }
+        }
+    }
+
+    private void index(FileData file) {
+        var packageFiles = packages.computeIfAbsent(packageOf(file.path), k -> new PackageFiles());
+        packageFiles.filesByKind.computeIfAbsent(file.getKind(), k -> new LinkedHashMap<>()).put(file.path, file);
+    }
+
+    private void unindex(FileData file) {
+        var packagePath = packageOf(file.path);
+        var packageFiles = packages.get(packagePath);
+        if (packageFiles == null) {
+            return;
+        }
+        var kind = file.getKind();
+        var filesOfKind = packageFiles.filesByKind.get(kind);
+        if (filesOfKind != null && filesOfKind.remove(file.path, file) && filesOfKind.isEmpty()) {
+            packageFiles.filesByKind.remove(kind);
+            if (packageFiles.filesByKind.isEmpty()) {
+                packages.remove(packagePath);
+            }
+        }
+    }
+
+    static String packageOf(String path) {
+        var index = path.lastIndexOf('/');
+        return index >= 0 ? path.substring(0, index) : "";
+    }
+
+    private static class PackageFiles {
+        final Map<JavaFileObject.Kind, Map<String, FileData>> filesByKind = new EnumMap<>(JavaFileObject.Kind.class);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.teavm.cache.CacheStatus;
+import org.teavm.cache.InMemoryProgramCache;
+import org.teavm.cache.InMemorySymbolTable;
+import org.teavm.cache.MemoryCachedClassReaderSource;
+import org.teavm.model.ClassHolderSource;
+import org.teavm.model.MethodReference;
+import org.teavm.model.PreOptimizingClassHolderSource;
+import org.teavm.model.Program;
+import org.teavm.model.ProgramCache;
+import org.teavm.model.ReferenceCache;
+
+// Keeps parsed classes and optimized method bodies between generateWebAssembly calls.
+// Classes are evicted when their bytecode changes, the rest is revalidated by TeaVM itself
+// using dependencies recorded along with each cached program.
+class IncrementalCache implements ProgramCache {
+    final ReferenceCache referenceCache = new ReferenceCache();
+    private final InMemorySymbolTable symbolTable = new InMemorySymbolTable();
+    private final InMemorySymbolTable fileTable = new InMemorySymbolTable();
+    private final InMemorySymbolTable variableTable = new InMemorySymbolTable();
+    final MemoryCachedClassReaderSource classSource = new MemoryCachedClassReaderSource(referenceCache,
+            symbolTable, fileTable, variableTable);
+    private final InMemoryProgramCache programCache = new InMemoryProgramCache(referenceCache,
+            symbolTable, fileTable, variableTable);
+    private final Map<String, ClassSnapshot> classes = new HashMap<>();
+    private int classlibVersion = -1;
+    private int hitCount;
+    private int missCount;
+
+    void update(FileSet classlib, List<FileSet> classPath, ClassHolderSource source) {
+        hitCount = 0;
+        missCount = 0;
+        if (classlibVersion != classlib.getModificationCount()) {
+            classlibVersion = classlib.getModificationCount();
+            classes.clear();
+            classSource.invalidate();
+            programCache.invalidate();
+            symbolTable.invalidate();
+            fileTable.invalidate();
+            variableTable.invalidate();
+        }
+
+        classSource.evict(detectChangedClasses(classPath));
+
+        classSource.setProvider(name -> PreOptimizingClassHolderSource.optimize(source::get, name));
+    }
+
+    List<String> detectChangedClasses(List<FileSet> classPath) {
+        var current = new HashMap<String, ClassSnapshot>();
+        for (var files : classPath) {
+            for (var file : files.getFiles()) {
+                if (file.path.endsWith(".class")) {
+                    var className = file.path.substring(0, file.path.length() - 6).replace('/', '.');
+                    current.put(className, new ClassSnapshot(file));
+                }
+            }
+        }
+        var changedClasses = new ArrayList<String>();
+        for (var entry : classes.entrySet()) {
+            var snapshot = current.get(entry.getKey());
+            if (snapshot == null || snapshot.differsFrom(entry.getValue())) {
+                changedClasses.add(entry.getKey());
+            }
+        }
+        for (var className : current.keySet()) {
+            if (!classes.containsKey(className)) {
+                changedClasses.add(className);
+            }
+        }
+        classes.clear();
+        classes.putAll(current);
+        return changedClasses;
+    }
+
+    CacheStatus getCacheStatus() {
+        return classSource;
+    }
+
+    void commit() {
+        classSource.commit();
+        programCache.commit();
+    }
+
+    void discard() {
+        programCache.discard();
+    }
+
+    int getHitCount() {
+        return hitCount;
+    }
+
+    int getMissCount() {
+        return missCount;
+    }
+
+    @Override
+    public Program get(MethodReference method, CacheStatus cacheStatus) {
+        var program = programCache.get(method, cacheStatus);
+        if (program != null) {
+            hitCount++;
+        }
+        return program;
+    }
+
+    @Override
+    public void store(MethodReference method, Program program, Supplier<String[]> dependencies) {
+        missCount++;
+        programCache.store(method, program, dependencies);
+    }
+
+    // Class path files are only read when their identity or content version changes, so that lazily added
+    // files are not loaded just to be compared. Files rewritten with the same content are not reported.
+    private static class ClassSnapshot {
+        final FileData file;
+        final int contentVersion;
+        final byte[] data;
+
+        ClassSnapshot(FileData file) {
+            this.file = file;
+            contentVersion = file.contentVersion;
+            data = file.isLoaded() ? file.getData() : null;
+        }
+
+        boolean differsFrom(ClassSnapshot previous) {
+            if (file == previous.file) {
+                if (contentVersion == previous.contentVersion) {
+                    return false;
+                }
+                return previous.data == null || !Arrays.equals(file.getData(), previous.data);
+            }
+            var previousData = previous.data != null ? previous.data : previous.file.getData();
+            return !Arrays.equals(file.getData(), previousData);
+        }
+    }
+}
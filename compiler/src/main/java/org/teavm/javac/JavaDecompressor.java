@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+final class JavaDecompressor implements Decompressor {
+    static final JavaDecompressor INSTANCE = new JavaDecompressor();
+
+    private JavaDecompressor() {
+    }
+
+    @Override
+    public byte[] inflate(byte[] data, int offset, int length, int size, String name) throws IOException {
+        var inflater = new Inflater(true);
+        try {
+            inflater.setInput(data, offset, length);
+            var result = new byte[size];
+            var resultOffset = 0;
+            while (resultOffset < result.length) {
+                var count = inflater.inflate(result, resultOffset, result.length - resultOffset);
+                if (count == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                resultOffset += count;
+            }
+            if (resultOffset != result.length) {
+                throw new IOException("Entry " + name + " is truncated");
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IOException("Entry " + name + " is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -23,10 +23,47 @@ import org.teavm.jso.JSExport;
 import org.teavm.jso.JSProperty;
 
 public class JavaDiagnostic extends BaseDiagnostic {
+    // Dropped by snapshot(), since javac diagnostic keeps the whole compiler context reachable
     private final Diagnostic<? extends JavaFileObject> innerDiagnostic;
+    private final String severity;
+    private String message;
+    private final int lineNumber;
+    private final int columnNumber;
+    private final String fileName;
+    private final int startPosition;
+    private final int position;
+    private final int endPosition;
 
     public JavaDiagnostic(Diagnostic<? extends JavaFileObject> innerDiagnostic) {
         this.innerDiagnostic = innerDiagnostic;
+        severity = switch (innerDiagnostic.getKind()) {
+            case ERROR -> "error";
+            case WARNING -> "warning";
+            default -> "other";
+        };
+        lineNumber = (int) innerDiagnostic.getLineNumber();
+        columnNumber = (int) innerDiagnostic.getColumnNumber();
+        fileName = innerDiagnostic.getSource() != null ? innerDiagnostic.getSource().getName() : null;
+        startPosition = (int) innerDiagnostic.getStartPosition();
+        position = (int) innerDiagnostic.getPosition();
+        endPosition = (int) innerDiagnostic.getEndPosition();
+    }
+
+    private JavaDiagnostic(JavaDiagnostic diagnostic) {
+        innerDiagnostic = null;
+        severity = diagnostic.severity;
+        message = diagnostic.getMessage();
+        lineNumber = diagnostic.lineNumber;
+        columnNumber = diagnostic.columnNumber;
+        fileName = diagnostic.fileName;
+        startPosition = diagnostic.startPosition;
+        position = diagnostic.position;
+        endPosition = diagnostic.endPosition;
+    }
+
+    @Override
+    JavaDiagnostic snapshot() {
+        return innerDiagnostic != null ? new JavaDiagnostic(this) : this;
     }
 
     @Override
@@ -40,55 +77,54 @@ public class JavaDiagnostic extends BaseDiagnostic {
     @JSExport
     @JSProperty
     public String getSeverity() {
-        return switch (innerDiagnostic.getKind()) {
-            case ERROR -> "error";
-            case WARNING -> "warning";
-            default -> "other";
-        };
+        return severity;
     }
 
     @Override
     @JSExport
     @JSProperty
     public String getMessage() {
-        return innerDiagnostic.getMessage(Locale.ENGLISH);
+        if (message == null) {
+            message = innerDiagnostic.getMessage(Locale.ENGLISH);
+        }
+        return message;
     }
 
     @Override
     @JSExport
     @JSProperty
     public int getLineNumber() {
-        return (int) innerDiagnostic.getLineNumber();
+        return lineNumber;
     }
 
     @JSExport
     @JSProperty
     public int getColumnNumber() {
-        return (int) innerDiagnostic.getColumnNumber();
+        return columnNumber;
     }
 
     @Override
     @JSExport
     @JSProperty
     public String getFileName() {
-        return innerDiagnostic.getSource().getName();
+        return fileName;
     }
 
     @JSExport
     @JSProperty
     public int getStartPosition() {
-        return (int) innerDiagnostic.getStartPosition();
+        return startPosition;
     }
 
     @JSExport
     @JSProperty
     public int getPosition() {
-        return (int) innerDiagnostic.getPosition();
+        return position;
     }
 
     @JSExport
     @JSProperty
     public int getEndPosition() {
-        return (int) innerDiagnostic.getEndPosition();
+        return endPosition;
     }
 }
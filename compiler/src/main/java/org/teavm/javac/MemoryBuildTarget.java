@@ -17,25 +17,22 @@
 package org.teavm.javac;
 
 import java.io.OutputStream;
-import java.util.Map;
 import org.teavm.vm.BuildTarget;
 
 class MemoryBuildTarget implements BuildTarget {
-    private Map<String, FileData> files;
+    private FileSet files;
 
-    public MemoryBuildTarget(Map<String, FileData> files) {
+    public MemoryBuildTarget(FileSet files) {
         this.files = files;
     }
 
     @Override
     public OutputStream createResource(String fileName) {
-        var file = files.computeIfAbsent(fileName, k -> {
-            var data = new FileData(files);
-            data.path = k;
-            data.data = new byte[0];
-            data.lastModified = System.currentTimeMillis();
-            return data;
-        });
+        var file = files.get(fileName);
+        if (file == null) {
+            file = files.add(fileName);
+            file.lastModified = System.currentTimeMillis();
+        }
         return file.openOutputStream();
     }
 }
@@ -18,48 +18,131 @@ package org.teavm.javac;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.NoSuchElementException;
 import org.teavm.parsing.resource.Resource;
 import org.teavm.parsing.resource.ResourceProvider;
 
+// Looks resources up in file sets one by one, in the given order, so that change of one set does not
+// affect lookups in others, e.g. output files changed by each compilation don't invalidate anything
+// built for class library. Resource objects are created on first lookup and kept per file set; when a set
+// changes, only its own objects of removed or replaced files are dropped.
 class MemoryResourceProvider implements ResourceProvider {
-    private final List<Map<String, FileData>> files;
+    private final List<FileSet> files;
+    private final int[] versions;
+    private final List<Map<String, FileResource>> resourcesBySet;
 
-    MemoryResourceProvider(List<Map<String, FileData>> files) {
+    MemoryResourceProvider(List<FileSet> files) {
         this.files = files;
+        versions = new int[files.size()];
+        resourcesBySet = new ArrayList<>();
+        for (var i = 0; i < files.size(); ++i) {
+            versions[i] = files.get(i).getModificationCount();
+            resourcesBySet.add(new HashMap<>());
+        }
+    }
+
+    @Override
+    public Resource getResource(String name) {
+        for (var i = 0; i < files.size(); ++i) {
+            var resource = find(i, name);
+            if (resource != null) {
+                return resource;
+            }
+        }
+        return null;
     }
 
     @Override
     public Iterator<Resource> getResources(String name) {
-       return files.stream()
-               .map(map -> getResources(map, name))
-               .filter(Objects::nonNull)
-               .iterator();
+        for (var i = 0; i < files.size(); ++i) {
+            var resource = find(i, name);
+            if (resource != null) {
+                return new ResourceIterator(name, resource, i + 1);
+            }
+        }
+        return Collections.emptyIterator();
     }
 
-    private Resource getResources(Map<String, FileData> map, String name) {
-        var file = map.get(name);
+    private FileResource find(int index, String name) {
+        var set = files.get(index);
+        var resources = resourcesBySet.get(index);
+        if (versions[index] != set.getModificationCount()) {
+            versions[index] = set.getModificationCount();
+            resources.values().removeIf(resource -> set.get(resource.file.path) != resource.file);
+        }
+        var file = set.get(name);
         if (file == null) {
             return null;
         }
-        return new Resource() {
-            @Override
-            public InputStream open() {
-                return new ByteArrayInputStream(file.data);
+        var resource = resources.get(name);
+        if (resource == null || resource.file != file) {
+            resource = new FileResource(file);
+            resources.put(name, resource);
+        }
+        return resource;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    // Looks up resources shadowed by the first one only when they are requested
+    private class ResourceIterator implements Iterator<Resource> {
+        private final String name;
+        private FileResource next;
+        private int nextSet;
+
+        ResourceIterator(String name, FileResource next, int nextSet) {
+            this.name = name;
+            this.next = next;
+            this.nextSet = nextSet;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && nextSet < files.size()) {
+                next = find(nextSet++, name);
             }
+            return next != null;
+        }
 
-            @Override
-            public Date getModificationDate() {
-                return new Date(file.lastModified);
+        @Override
+        public Resource next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
-        };
+            var result = next;
+            next = null;
+            return result;
+        }
     }
 
-    @Override
-    public void close() {
+    private static class FileResource implements Resource {
+        final FileData file;
+        private Date modificationDate;
+
+        FileResource(FileData file) {
+            this.file = file;
+        }
+
+        @Override
+        public InputStream open() {
+            return new ByteArrayInputStream(file.getData());
+        }
+
+        @Override
+        public Date getModificationDate() {
+            if (modificationDate == null || modificationDate.getTime() != file.lastModified) {
+                modificationDate = new Date(file.lastModified);
+            }
+            return modificationDate;
+        }
     }
 }
@@ -0,0 +1,44 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.teavm.jso.core.JSPromise;
+import org.teavm.jso.typedarrays.Int8Array;
+
+class MemoryStorage implements Storage {
+    private final Map<String, Int8Array> files = new HashMap<>();
+    private final Map<String, String> validators = new HashMap<>();
+
+    @Override
+    public JSPromise<Int8Array> get(String key) {
+        return JSPromise.resolve(files.get(key));
+    }
+
+    @Override
+    public JSPromise<String> getValidator(String key) {
+        return JSPromise.resolve(validators.get(key));
+    }
+
+    @Override
+    public JSPromise<Boolean> put(String key, Int8Array data, String validator) {
+        files.put(key, data);
+        validators.put(key, validator);
+        return JSPromise.resolve(true);
+    }
+}
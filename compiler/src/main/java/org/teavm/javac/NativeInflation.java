@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.teavm.jso.JSBody;
+import org.teavm.jso.core.JSArray;
+import org.teavm.jso.core.JSArrayReader;
+import org.teavm.jso.core.JSPromise;
+import org.teavm.jso.typedarrays.Int8Array;
+
+// Inflates compressed files ahead of time with DecompressionStream, which runs natively and is
+// much faster than Inflater compiled to WebAssembly. Since it's asynchronous, it can't serve reads
+// made by javac and TeaVM; files read before they are inflated here fall back to Decompressor.
+final class NativeInflation {
+    private static final int BATCH_SIZE = 64;
+
+    private NativeInflation() {
+    }
+
+    @JSBody(script = ""
+            + "try {"
+            + "new DecompressionStream('deflate-raw');"
+            + "return true;"
+            + "} catch (e) {"
+            + "return false;"
+            + "}")
+    static native boolean isSupported();
+
+    // Resolves to the number of inflated files
+    static JSPromise<Integer> inflateAll(List<FileSet> fileSets) {
+        var files = new ArrayList<FileData>();
+        for (var fileSet : fileSets) {
+            for (var file : fileSet.getFiles()) {
+                if (file.getPendingCompressedEntry() != null) {
+                    files.add(file);
+                }
+            }
+        }
+        return inflate(files, 0, 0);
+    }
+
+    private static JSPromise<Integer> inflate(List<FileData> files, int index, int inflatedCount) {
+        if (index >= files.size()) {
+            return JSPromise.resolve(inflatedCount);
+        }
+        var end = Math.min(files.size(), index + BATCH_SIZE);
+        var batch = new ArrayList<FileData>();
+        var entries = new ArrayList<CompressedEntry>();
+        var input = new JSArray<Int8Array>();
+        for (var i = index; i < end; ++i) {
+            // Skip files that were read in the meantime, as well as removed or replaced ones
+            var file = files.get(i);
+            var entry = file.getPendingCompressedEntry();
+            if (entry != null && file.getOwner().get(file.path) == file) {
+                batch.add(file);
+                entries.add(entry);
+                input.push(Int8Array.copyFromJavaArray(entry.getCompressedData()));
+            }
+        }
+        if (batch.isEmpty()) {
+            return inflate(files, end, inflatedCount);
+        }
+        return inflateBatch(input).flatThen(output -> {
+            var count = inflatedCount;
+            for (var i = 0; i < batch.size(); ++i) {
+                if (batch.get(i).preload(entries.get(i), output.get(i).copyToJavaArray())) {
+                    count++;
+                }
+            }
+            return inflate(files, end, count);
+        });
+    }
+
+    @JSBody(params = "input", script = ""
+            + "return Promise.all(input.map(data => new Response(new Blob([data]).stream()"
+            + ".pipeThrough(new DecompressionStream('deflate-raw'))).arrayBuffer()"
+            + ".then(buffer => new Int8Array(buffer))));")
+    private static native JSPromise<JSArrayReader<Int8Array>> inflateBatch(JSArray<Int8Array> input);
+}
@@ -0,0 +1,127 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.teavm.javac;
+
+import com.sun.tools.javac.tree.EndPosTable;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.TreeCopier;
+import com.sun.tools.javac.tree.TreeMaker;
+import com.sun.tools.javac.util.Position;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps parse trees of source files between rounds of a persistent javac session, keyed by content hash.
+// Cached trees are never entered or attributed: each round gets a copy, since later phases
+// modify trees in place (e.g. add default constructors).
+class ParseTreeCache {
+    private final TreeMaker treeMaker;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    ParseTreeCache(TreeMaker treeMaker) {
+        this.treeMaker = treeMaker;
+    }
+
+    JCCompilationUnit get(FileData file) {
+        var entry = entries.get(file.path);
+        return entry != null && entry.hash == file.getHash() ? copy(entry.unit) : null;
+    }
+
+    JCCompilationUnit put(FileData file, JCCompilationUnit unit) {
+        entries.put(file.path, new Entry(file.getHash(), unit));
+        return copy(unit);
+    }
+
+    void remove(String path) {
+        entries.remove(path);
+    }
+
+    void retain(Set<String> paths) {
+        entries.keySet().retainAll(paths);
+    }
+
+    private JCCompilationUnit copy(JCCompilationUnit unit) {
+        var originals = new IdentityHashMap<JCTree, JCTree>();
+        var copier = new TreeCopier<Void>(treeMaker) {
+            @Override
+            public <T extends JCTree> T copy(T tree, Void p) {
+                var result = super.copy(tree, p);
+                if (result != null) {
+                    originals.put(result, tree);
+                }
+                return result;
+            }
+        };
+        var result = copier.copy(unit);
+        result.sourcefile = unit.sourcefile;
+        result.lineMap = unit.lineMap;
+        result.docComments = unit.docComments;
+        result.endPositions = unit.endPositions != null
+                ? new CopyEndPosTable(unit.endPositions, originals)
+                : null;
+        return result;
+    }
+
+    private static class Entry {
+        final long hash;
+        final JCCompilationUnit unit;
+
+        Entry(long hash, JCCompilationUnit unit) {
+            this.hash = hash;
+            this.unit = unit;
+        }
+    }
+
+    // Answers end positions of copied trees by looking up the trees they were copied from
+    private static class CopyEndPosTable implements EndPosTable {
+        private final EndPosTable original;
+        private final Map<JCTree, JCTree> originals;
+        private final Map<JCTree, Integer> stored = new IdentityHashMap<>();
+
+        CopyEndPosTable(EndPosTable original, Map<JCTree, JCTree> originals) {
+            this.original = original;
+            this.originals = originals;
+        }
+
+        @Override
+        public int getEndPos(JCTree tree) {
+            var pos = stored.get(tree);
+            if (pos != null) {
+                return pos;
+            }
+            var source = originals.get(tree);
+            return source != null ? original.getEndPos(source) : Position.NOPOS;
+        }
+
+        @Override
+        public void storeEnd(JCTree tree, int endPos) {
+            stored.put(tree, endPos);
+        }
+
+        @Override
+        public int replaceTree(JCTree oldTree, JCTree newTree) {
+            var pos = getEndPos(oldTree);
+            if (pos != Position.NOPOS) {
+                stored.put(newTree, pos);
+            }
+            return pos;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import org.teavm.jso.JSExport;
+import org.teavm.jso.JSProperty;
+
+public class PhaseEvent {
+    private final String tool;
+    private final String phase;
+    private final boolean end;
+    private final int elapsed;
+
+    PhaseEvent(String tool, String phase, boolean end, int elapsed) {
+        this.tool = tool;
+        this.phase = phase;
+        this.end = end;
+        this.elapsed = elapsed;
+    }
+
+    // Either "javac" or "teavm"
+    @JSExport
+    @JSProperty
+    public String getTool() {
+        return tool;
+    }
+
+    @JSExport
+    @JSProperty
+    public String getPhase() {
+        return phase;
+    }
+
+    // Either "start" or "end"
+    @JSExport
+    @JSProperty
+    public String getEvent() {
+        return end ? "end" : "start";
+    }
+
+    // Milliseconds spent in phase, 0 for "start" events
+    @JSExport
+    @JSProperty
+    public int getElapsed() {
+        return elapsed;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.util.List;
+import org.teavm.vm.TeaVMPhase;
+import org.teavm.vm.TeaVMProgressFeedback;
+import org.teavm.vm.TeaVMProgressListener;
+
+// Reports sequential phases of a tool, each phase ends when the next one starts or when tracking finishes
+class PhaseTracker implements TeaVMProgressListener {
+    private final String tool;
+    private final List<Compiler.PhaseListenerRegistration> listeners;
+    private final BuildStats stats;
+    private String currentPhase;
+    private long phaseStartTime;
+
+    PhaseTracker(String tool, List<Compiler.PhaseListenerRegistration> listeners, BuildStats stats) {
+        this.tool = tool;
+        this.listeners = listeners;
+        this.stats = stats;
+    }
+
+    void start(String phase) {
+        finish();
+        currentPhase = phase;
+        phaseStartTime = System.currentTimeMillis();
+        fire(new PhaseEvent(tool, phase, false, 0));
+    }
+
+    void finish() {
+        if (currentPhase != null) {
+            var elapsed = (int) (System.currentTimeMillis() - phaseStartTime);
+            var phase = currentPhase;
+            currentPhase = null;
+            if (stats != null) {
+                stats.addPhase(tool, phase, elapsed);
+            }
+            fire(new PhaseEvent(tool, phase, true, elapsed));
+        }
+    }
+
+    private void fire(PhaseEvent event) {
+        for (var reg : List.copyOf(listeners)) {
+            reg.listener.onPhase(event);
+        }
+    }
+
+    @Override
+    public TeaVMProgressFeedback phaseStarted(TeaVMPhase phase, int count) {
+        start(phase.name().toLowerCase().replace('_', '-'));
+        return TeaVMProgressFeedback.CONTINUE;
+    }
+
+    @Override
+    public TeaVMProgressFeedback progressReached(int progress) {
+        return TeaVMProgressFeedback.CONTINUE;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Remembers outputs of previous compilations by hash of their inputs.
+// Least recently used results are dropped when their estimated total size or count exceeds the limit.
+class ResultCache {
+    private static final int DIAGNOSTIC_OVERHEAD = 64;
+
+    private final Map<String, Result> results = new LinkedHashMap<>(16, 0.75f, true);
+    private long capacity = 32 * 1024 * 1024;
+    private int entryCapacity = 64;
+    private long size;
+    private int hitCount;
+    private int missCount;
+
+    Result get(String key) {
+        var result = results.get(key);
+        if (result != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return result;
+    }
+
+    void put(String key, Result result) {
+        result.size += key.length();
+        if (capacity <= 0 || entryCapacity <= 0 || result.size > capacity) {
+            return;
+        }
+        var old = results.put(key, result);
+        if (old != null) {
+            size -= old.size;
+        }
+        size += result.size;
+        evict();
+    }
+
+    boolean isEnabled() {
+        return capacity > 0 && entryCapacity > 0;
+    }
+
+    void setCapacity(long capacity) {
+        this.capacity = capacity;
+        evict();
+    }
+
+    void setEntryCapacity(int entryCapacity) {
+        this.entryCapacity = entryCapacity;
+        evict();
+    }
+
+    void clear() {
+        results.clear();
+        size = 0;
+    }
+
+    int getHitCount() {
+        return hitCount;
+    }
+
+    int getMissCount() {
+        return missCount;
+    }
+
+    private void evict() {
+        var iterator = results.values().iterator();
+        while ((size > Math.max(capacity, 0) || results.size() > entryCapacity) && iterator.hasNext()) {
+            size -= iterator.next().size;
+            iterator.remove();
+        }
+    }
+
+    static class Result {
+        final boolean successful;
+        final Map<String, byte[]> files = new LinkedHashMap<>();
+        final List<BaseDiagnostic> diagnostics = new ArrayList<>();
+        long size;
+
+        Result(boolean successful) {
+            this.successful = successful;
+        }
+
+        void addFile(String path, byte[] data) {
+            files.put(path, data);
+            size += data.length + path.length();
+        }
+
+        void addDiagnostic(BaseDiagnostic diagnostic) {
+            var snapshot = diagnostic.snapshot();
+            diagnostics.add(snapshot);
+            size += DIAGNOSTIC_OVERHEAD + length(snapshot.getMessage()) + length(snapshot.getFileName());
+        }
+
+        private static int length(String s) {
+            return s != null ? s.length() : 0;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Log;
+
+class SessionLog extends Log {
+    SessionLog(Context context) {
+        super(context);
+    }
+
+    static void preRegister(Context context) {
+        context.put(logKey, (Context.Factory<Log>) SessionLog::new);
+    }
+
+    void clear() {
+        recorded.clear();
+        sourceMap.clear();
+        nerrors = 0;
+        nwarnings = 0;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import org.teavm.jso.JSObject;
+import org.teavm.jso.JSProperty;
+
+public interface SourceFileEdit extends JSObject {
+    // Offsets are in UTF-16 code units, end is exclusive
+    @JSProperty
+    int getStart();
+
+    @JSProperty
+    int getEnd();
+
+    @JSProperty
+    String getText();
+}
@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.teavm.javac;
+
+import org.teavm.jso.JSExport;
+import org.teavm.jso.JSProperty;
+
+// Attributed tree of a single source file, flattened into parallel arrays in pre-order,
+// so that it can be passed between workers as is. Parents precede their children.
+public class SourceTree {
+    private final String fileName;
+    private final String[] kindNames;
+    private final int[] kinds;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] parents;
+    private final String[] symbolIds;
+    private final int[] symbols;
+
+    SourceTree(String fileName, String[] kindNames, int[] kinds, int[] starts, int[] ends, int[] parents,
+            String[] symbolIds, int[] symbols) {
+        this.fileName = fileName;
+        this.kindNames = kindNames;
+        this.kinds = kinds;
+        this.starts = starts;
+        this.ends = ends;
+        this.parents = parents;
+        this.symbolIds = symbolIds;
+        this.symbols = symbols;
+    }
+
+    @JSExport
+    @JSProperty
+    public String getFileName() {
+        return fileName;
+    }
+
+    @JSExport
+    @JSProperty
+    public int getNodeCount() {
+        return kinds.length;
+    }
+
+    // Names of com.sun.source.tree.Tree.Kind constants, referenced by getKinds
+    @JSExport
+    @JSProperty
+    public String[] getKindNames() {
+        return kindNames;
+    }
+
+    @JSExport
+    @JSProperty
+    public int[] getKinds() {
+        return kinds;
+    }
+
+    // Character offsets, end is exclusive
+    @JSExport
+    @JSProperty
+    public int[] getStarts() {
+        return starts;
+    }
+
+    @JSExport
+    @JSProperty
+    public int[] getEnds() {
+        return ends;
+    }
+
+    // Index of parent node, -1 for the compilation unit
+    @JSExport
+    @JSProperty
+    public int[] getParents() {
+        return parents;
+    }
+
+    // Ids of symbols, referenced by getSymbols. Same symbol has same id in trees of all files
+    // and in subsequent calls, except for local variables, which are only unique within a file.
+    @JSExport
+    @JSProperty
+    public String[] getSymbolIds() {
+        return symbolIds;
+    }
+
+    // Index of symbol the node declares or refers to, -1 if there's none or it could not be resolved
+    @JSExport
+    @JSProperty
+    public int[] getSymbols() {
+        return symbols;
+    }
+
+    // Index of the innermost node that contains given offset, -1 if there's none
+    @JSExport
+    public int findNode(int offset) {
+        var result = -1;
+        for (var i = 0; i < kinds.length; ++i) {
+            if (starts[i] <= offset && offset < ends[i]) {
+                result = i;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.teavm.javac;
+
+import com.sun.source.tree.Tree;
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.code.Kinds.Kind;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.VarSymbol;
+import com.sun.tools.javac.code.Types;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+import com.sun.tools.javac.tree.TreeInfo;
+import com.sun.tools.javac.tree.TreeScanner;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class SourceTreeBuilder extends TreeScanner {
+    private final Types types;
+    private final JCCompilationUnit unit;
+    private final Map<Tree.Kind, Integer> kindIndexes = new EnumMap<>(Tree.Kind.class);
+    private final Map<String, Integer> symbolIndexes = new LinkedHashMap<>();
+    private final Map<Symbol, String> symbolIds = new IdentityHashMap<>();
+    private int[] kinds = new int[256];
+    private int[] starts = new int[256];
+    private int[] ends = new int[256];
+    private int[] parents = new int[256];
+    private int[] symbols = new int[256];
+    private int count;
+    private int parent = -1;
+
+    private SourceTreeBuilder(Types types, JCCompilationUnit unit) {
+        this.types = types;
+        this.unit = unit;
+    }
+
+    static SourceTree build(Types types, JCCompilationUnit unit, String fileName) {
+        var builder = new SourceTreeBuilder(types, unit);
+        builder.scan(unit);
+        var kindNames = new String[builder.kindIndexes.size()];
+        for (var entry : builder.kindIndexes.entrySet()) {
+            kindNames[entry.getValue()] = entry.getKey().name();
+        }
+        var count = builder.count;
+        return new SourceTree(fileName, kindNames, Arrays.copyOf(builder.kinds, count),
+                Arrays.copyOf(builder.starts, count), Arrays.copyOf(builder.ends, count),
+                Arrays.copyOf(builder.parents, count), builder.symbolIndexes.keySet().toArray(new String[0]),
+                Arrays.copyOf(builder.symbols, count));
+    }
+
+    @Override
+    public void scan(JCTree tree) {
+        if (tree == null || tree.pos < 0 || isGenerated(tree)) {
+            return;
+        }
+        if (count == kinds.length) {
+            var capacity = count * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            symbols = Arrays.copyOf(symbols, capacity);
+        }
+        var index = count++;
+        var start = TreeInfo.getStartPos(tree);
+        var end = TreeInfo.getEndPos(tree, unit.endPositions);
+        kinds[index] = kindIndexes.computeIfAbsent(tree.getKind(), _ -> kindIndexes.size());
+        starts[index] = start;
+        ends[index] = Math.max(start, end);
+        parents[index] = parent;
+        symbols[index] = symbolIndex(TreeInfo.symbolFor(tree));
+
+        var previousParent = parent;
+        parent = index;
+        super.scan(tree);
+        parent = previousParent;
+    }
+
+    // Members that javac adds by itself, like default constructors and record accessors
+    private static boolean isGenerated(JCTree tree) {
+        if (tree instanceof JCMethodDecl method) {
+            var flags = method.sym != null ? method.sym.flags() : method.mods.flags;
+            return (flags & (Flags.GENERATED_MEMBER | Flags.GENERATEDCONSTR)) != 0;
+        }
+        if (tree instanceof JCVariableDecl variable) {
+            return (variable.mods.flags & Flags.GENERATED_MEMBER) != 0;
+        }
+        return false;
+    }
+
+    private int symbolIndex(Symbol symbol) {
+        var id = symbol != null ? idOf(symbol) : null;
+        return id != null ? symbolIndexes.computeIfAbsent(id, _ -> symbolIndexes.size()) : -1;
+    }
+
+    private String idOf(Symbol symbol) {
+        var id = symbolIds.get(symbol);
+        if (id == null) {
+            id = computeId(symbol);
+            if (id != null) {
+                symbolIds.put(symbol, id);
+            }
+        }
+        return id;
+    }
+
+    // Classes are identified by binary name, members by owner and name (and erased parameter types
+    // for methods), local variables by name and position of declaration
+    private String computeId(Symbol symbol) {
+        switch (symbol.kind) {
+            case PCK:
+                return symbol.getQualifiedName().toString();
+            case TYP:
+                if (symbol instanceof ClassSymbol cls) {
+                    return cls.flatname.toString();
+                }
+                return symbol.owner != null ? memberId(symbol, "<") : null;
+            case MTH: {
+                var prefix = memberId(symbol, "#");
+                if (prefix == null) {
+                    return null;
+                }
+                var sb = new StringBuilder(prefix).append('(');
+                var parameterTypes = types.erasure(symbol.type).getParameterTypes();
+                for (var i = 0; i < parameterTypes.size(); ++i) {
+                    if (i > 0) {
+                        sb.append(',');
+                    }
+                    sb.append(parameterTypes.get(i));
+                }
+                return sb.append(')').toString();
+            }
+            case VAR:
+                if (symbol.owner != null && symbol.owner.kind == Kind.TYP) {
+                    return memberId(symbol, "#");
+                }
+                return symbol.name + "@" + ((VarSymbol) symbol).pos;
+            default:
+                return null;
+        }
+    }
+
+    private String memberId(Symbol symbol, String separator) {
+        var ownerId = idOf(symbol.owner);
+        return ownerId != null ? ownerId + separator + symbol.name : null;
+    }
+}
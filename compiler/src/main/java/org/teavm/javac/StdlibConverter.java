@@ -16,17 +16,15 @@
 
 package org.teavm.javac;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
-import java.util.Set;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
@@ -455,66 +453,85 @@ public class StdlibConverter extends ClassVisitor {
     }
 
     public static void main(String[] args) throws IOException {
-        try (var output = new ArchiveBuilder(new FileOutputStream(args[0]))) {
-            var packageNames = new LinkedHashSet<String>();
+        var fileSystems = new ArrayList<FileSystem>();
+        try {
+            var classFiles = new ArrayList<Path>();
             for (var i = 1; i < args.length; ++i) {
-                var file = new File(args[i]);
-                if (file.isFile()) {
-                    try (var input = new ZipInputStream(new FileInputStream(args[i]))) {
-                        while (true) {
-                            ZipEntry entry = input.getNextEntry();
-                            if (entry == null) {
-                                break;
-                            }
-                            if (entry.isDirectory() || !entry.getName().endsWith(".class")) {
-                                continue;
-                            }
-
-                            addFile(input, output, packageNames);
+                var path = Path.of(args[i]);
+                Path root;
+                if (Files.isRegularFile(path)) {
+                    var fileSystem = FileSystems.newFileSystem(path);
+                    fileSystems.add(fileSystem);
+                    root = fileSystem.getPath("/");
+                } else {
+                    root = path;
+                }
+                try (var stream = Files.walk(root)) {
+                    stream.filter(file -> Files.isRegularFile(file) && file.getFileName().toString().endsWith(".class"))
+                            .sorted()
+                            .forEach(classFiles::add);
+                }
+            }
+
+            var results = classFiles.parallelStream().map(StdlibConverter::convert).toList();
+
+            try (var output = new ArchiveBuilder(new FileOutputStream(args[0]))) {
+                var packageNames = new LinkedHashSet<String>();
+                var symbols = new SymbolIndex.Builder();
+                for (var result : results) {
+                    if (result.entry != null) {
+                        output.append(result.entry);
+                        symbols.addClass(result.data);
+                    }
+                    if (result.className != null) {
+                        var index = result.className.lastIndexOf('/');
+                        if (index > 0) {
+                            packageNames.add(result.className.substring(0, index));
                         }
                     }
-                } else {
-                    try (var stream = Files.walk(file.toPath())) {
-                        stream.forEach(path -> {
-                            if (Files.isRegularFile(path) && path.getFileName().toString().endsWith(".class")) {
-                                try {
-                                    addFile(Files.newInputStream(path), output, packageNames);
-                                } catch (IOException e) {
-                                    throw new UncheckedIOException(e);
-                                }
-                            }
-                        });
+                }
+                if (!packageNames.isEmpty()) {
+                    var writer = new ClassWriter(0);
+                    writer.visit(Opcodes.V21, Opcodes.ACC_MODULE, "java.base", null, null, null);
+                    var mv = writer.visitModule("java.base", Opcodes.ACC_OPEN, null);
+                    for (var packageName : packageNames) {
+                        mv.visitExport(packageName, 0, (String[]) null);
                     }
+                    mv.visitEnd();
+                    output.append("module-info.class", writer.toByteArray());
                 }
+                output.append(SymbolIndex.ARCHIVE_ENTRY, symbols.build().toByteArray());
             }
-            if (!packageNames.isEmpty()) {
-                var writer = new ClassWriter(0);
-                writer.visit(Opcodes.V21, Opcodes.ACC_MODULE, "java.base", null, null, null);
-                var mv = writer.visitModule("java.base", Opcodes.ACC_OPEN, null);
-                for (var packageName : packageNames) {
-                    mv.visitExport(packageName, 0, (String[]) null);
-                }
-                mv.visitEnd();
-                output.append("module-info.class", writer.toByteArray());
+        } finally {
+            for (var fileSystem : fileSystems) {
+                fileSystem.close();
             }
         }
     }
 
-    private static void addFile(InputStream input, ArchiveBuilder output, Set<String> packageNames) throws IOException {
-        ClassReader reader = new ClassReader(input);
+    private static ConversionResult convert(Path file) {
+        ClassReader reader;
+        try (var input = Files.newInputStream(file)) {
+            reader = new ClassReader(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         ClassWriter writer = new ClassWriter(0);
         StdlibConverter converter = new StdlibConverter(writer);
         reader.accept(converter, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES
                 | ClassReader.SKIP_DEBUG);
+        var result = new ConversionResult();
+        result.className = converter.className;
         if (converter.visible) {
-            var outputName = converter.className + ".class";
-            output.append(outputName, writer.toByteArray());
-        }
-        if (converter.className != null) {
-            var index = converter.className.lastIndexOf('/');
-            if (index > 0) {
-                packageNames.add(converter.className.substring(0, index));
-            }
+            result.data = writer.toByteArray();
+            result.entry = ArchiveBuilder.prepare(converter.className + ".class", result.data);
         }
+        return result;
+    }
+
+    private static class ConversionResult {
+        String className;
+        byte[] data;
+        ArchiveBuilder.PreparedEntry entry;
     }
 }
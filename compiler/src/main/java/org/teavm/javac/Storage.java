@@ -0,0 +1,31 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import org.teavm.jso.core.JSPromise;
+import org.teavm.jso.typedarrays.Int8Array;
+
+// Keeps downloaded files between worker sessions
+interface Storage {
+    // Resolves to null when nothing is stored under given key
+    JSPromise<Int8Array> get(String key);
+
+    // Resolves to the value stored along with data, e.g. HTTP validator, null when there's none
+    JSPromise<String> getValidator(String key);
+
+    JSPromise<Boolean> put(String key, Int8Array data, String validator);
+}
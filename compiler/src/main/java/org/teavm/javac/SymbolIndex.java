@@ -0,0 +1,536 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.teavm.javac;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+// Public API of classes: types along with their public and protected members, laid out in sorted arrays,
+// so that completion queries are answered by binary search over name prefixes, without loading
+// classes into javac. Class names are in internal form (java/util/Map$Entry).
+class SymbolIndex {
+    static final String ARCHIVE_ENTRY = "META-INF/teavm-javac/symbols.idx";
+    private static final int MAGIC = 0x54534958;
+    private static final int VERSION = 1;
+
+    // Sorted by name
+    private final String[] classNames;
+    private final int[] classAccess;
+    private final String[] superclasses;
+    private final int[] interfaceOffsets;
+    private final String[] interfaces;
+    private final int[] memberOffsets;
+
+    // Sorted by name within each class
+    private final String[] memberNames;
+    private final String[] memberDescriptors;
+    private final String[] memberSignatures;
+    private final int[] memberAccess;
+
+    private final String[] simpleNames;
+    private final int[] classesBySimpleName;
+    private final String[] packages;
+
+    private SymbolIndex(String[] classNames, int[] classAccess, String[] superclasses, int[] interfaceOffsets,
+            String[] interfaces, int[] memberOffsets, String[] memberNames, String[] memberDescriptors,
+            String[] memberSignatures, int[] memberAccess) {
+        this.classNames = classNames;
+        this.classAccess = classAccess;
+        this.superclasses = superclasses;
+        this.interfaceOffsets = interfaceOffsets;
+        this.interfaces = interfaces;
+        this.memberOffsets = memberOffsets;
+        this.memberNames = memberNames;
+        this.memberDescriptors = memberDescriptors;
+        this.memberSignatures = memberSignatures;
+        this.memberAccess = memberAccess;
+
+        var sortedClasses = new ArrayList<Integer>();
+        var packageSet = new TreeSet<String>();
+        for (var i = 0; i < classNames.length; ++i) {
+            var name = classNames[i];
+            var packageEnd = name.lastIndexOf('/');
+            if (packageEnd > 0) {
+                packageSet.add(name.substring(0, packageEnd));
+            }
+            if (simpleNameOf(name) != null) {
+                sortedClasses.add(i);
+            }
+        }
+        sortedClasses.sort((a, b) -> simpleNameOf(classNames[a]).compareTo(simpleNameOf(classNames[b])));
+        simpleNames = new String[sortedClasses.size()];
+        classesBySimpleName = new int[sortedClasses.size()];
+        for (var i = 0; i < sortedClasses.size(); ++i) {
+            classesBySimpleName[i] = sortedClasses.get(i);
+            simpleNames[i] = simpleNameOf(classNames[classesBySimpleName[i]]);
+        }
+        packages = packageSet.toArray(new String[0]);
+    }
+
+    // Null for anonymous and local classes
+    private static String simpleNameOf(String className) {
+        var start = Math.max(className.lastIndexOf('/'), className.lastIndexOf('$')) + 1;
+        if (start == className.length() || Character.isDigit(className.charAt(start))) {
+            return null;
+        }
+        return className.substring(start);
+    }
+
+    int getClassCount() {
+        return classNames.length;
+    }
+
+    // Types whose simple names start with given prefix
+    static void completeType(List<SymbolIndex> indexes, String prefix, int limit, List<CompletionItem> result) {
+        var seen = new HashSet<String>();
+        for (var index : indexes) {
+            var i = lowerBound(index.simpleNames, prefix);
+            for (; i < index.simpleNames.length && index.simpleNames[i].startsWith(prefix); ++i) {
+                if (isFull(result, limit)) {
+                    return;
+                }
+                var cls = index.classesBySimpleName[i];
+                if (seen.add(index.classNames[cls])) {
+                    result.add(index.classItem(cls));
+                }
+            }
+        }
+    }
+
+    // Subpackages and top-level types of given package (in internal form, empty for the root package)
+    static void completePackage(List<SymbolIndex> indexes, String packageName, String prefix, int limit,
+            List<CompletionItem> result) {
+        var base = packageName.isEmpty() ? "" : packageName + "/";
+        var seen = new HashSet<String>();
+        for (var index : indexes) {
+            var i = lowerBound(index.packages, base + prefix);
+            for (; i < index.packages.length && index.packages[i].startsWith(base + prefix); ++i) {
+                var end = index.packages[i].indexOf('/', base.length());
+                var subpackage = end >= 0 ? index.packages[i].substring(0, end) : index.packages[i];
+                if (seen.add(subpackage)) {
+                    if (isFull(result, limit)) {
+                        return;
+                    }
+                    result.add(new CompletionItem("package", subpackage.substring(base.length()),
+                            subpackage.replace('/', '.'), null, null, false));
+                }
+            }
+        }
+        for (var index : indexes) {
+            var i = lowerBound(index.classNames, base + prefix);
+            for (; i < index.classNames.length && index.classNames[i].startsWith(base + prefix); ++i) {
+                var name = index.classNames[i];
+                if (name.indexOf('/', base.length()) >= 0 || name.indexOf('$', base.length()) >= 0) {
+                    continue;
+                }
+                if (seen.add(name)) {
+                    if (isFull(result, limit)) {
+                        return;
+                    }
+                    result.add(index.classItem(i));
+                }
+            }
+        }
+    }
+
+    // Members of given class and its supertypes. Static members of interfaces are not inherited,
+    // so they are only reported for the class itself.
+    static void completeMember(List<SymbolIndex> indexes, String className, String prefix, boolean staticOnly,
+            int limit, List<CompletionItem> result) {
+        var visited = new HashSet<String>();
+        var seen = new HashSet<String>();
+        var queue = new ArrayList<String>();
+        queue.add(className);
+        for (var head = 0; head < queue.size(); ++head) {
+            var name = queue.get(head);
+            if (!visited.add(name)) {
+                continue;
+            }
+            for (var index : indexes) {
+                var cls = index.findClass(name);
+                if (cls < 0) {
+                    continue;
+                }
+                var inheritStatic = head == 0 || (index.classAccess[cls] & Opcodes.ACC_INTERFACE) == 0;
+                if (!index.completeMember(cls, prefix, staticOnly, inheritStatic, limit, seen, result)) {
+                    return;
+                }
+                if (index.superclasses[cls] != null) {
+                    queue.add(index.superclasses[cls]);
+                }
+                for (var i = index.interfaceOffsets[cls]; i < index.interfaceOffsets[cls + 1]; ++i) {
+                    queue.add(index.interfaces[i]);
+                }
+                break;
+            }
+        }
+    }
+
+    private boolean completeMember(int cls, String prefix, boolean staticOnly, boolean includeStatic, int limit,
+            Set<String> seen, List<CompletionItem> result) {
+        var end = memberOffsets[cls + 1];
+        var i = lowerBound(memberNames, memberOffsets[cls], end, prefix);
+        for (; i < end && memberNames[i].startsWith(prefix); ++i) {
+            var isStatic = (memberAccess[i] & Opcodes.ACC_STATIC) != 0;
+            if (staticOnly && !isStatic || isStatic && !includeStatic) {
+                continue;
+            }
+            var descriptor = memberDescriptors[i];
+            var isMethod = descriptor.startsWith("(");
+            // Fields are hidden by name, methods are overridden by name and parameter types
+            var key = isMethod ? memberNames[i] + descriptor.substring(0, descriptor.indexOf(')') + 1)
+                    : memberNames[i];
+            if (seen.add(key)) {
+                if (isFull(result, limit)) {
+                    return false;
+                }
+                result.add(new CompletionItem(isMethod ? "method" : "field", memberNames[i],
+                        classNames[cls].replace('/', '.'), descriptor, memberSignatures[i], isStatic));
+            }
+        }
+        return true;
+    }
+
+    private static boolean isFull(List<CompletionItem> result, int limit) {
+        return limit > 0 && result.size() >= limit;
+    }
+
+    private int findClass(String name) {
+        var index = lowerBound(classNames, name);
+        return index < classNames.length && classNames[index].equals(name) ? index : -1;
+    }
+
+    private CompletionItem classItem(int cls) {
+        var access = classAccess[cls];
+        String kind;
+        if ((access & Opcodes.ACC_ANNOTATION) != 0) {
+            kind = "annotation";
+        } else if ((access & Opcodes.ACC_INTERFACE) != 0) {
+            kind = "interface";
+        } else if ((access & Opcodes.ACC_ENUM) != 0) {
+            kind = "enum";
+        } else if ((access & Opcodes.ACC_RECORD) != 0) {
+            kind = "record";
+        } else {
+            kind = "class";
+        }
+        var name = classNames[cls];
+        return new CompletionItem(kind, simpleNameOf(name), name.replace('/', '.'), null, null,
+                (access & Opcodes.ACC_STATIC) != 0);
+    }
+
+    private static int lowerBound(String[] array, String key) {
+        return lowerBound(array, 0, array.length, key);
+    }
+
+    private static int lowerBound(String[] array, int from, int to, String key) {
+        while (from < to) {
+            var mid = (from + to) >>> 1;
+            if (array[mid].compareTo(key) < 0) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    byte[] toByteArray() {
+        var strings = new HashMap<String, Integer>();
+        var stringList = new ArrayList<String>();
+        var body = new ByteArrayOutputStream();
+        try {
+            var output = new DataOutputStream(body);
+            output.writeInt(classNames.length);
+            for (var i = 0; i < classNames.length; ++i) {
+                output.writeInt(stringIndex(classNames[i], strings, stringList));
+                output.writeInt(classAccess[i]);
+                output.writeInt(stringIndex(superclasses[i], strings, stringList));
+                output.writeShort(interfaceOffsets[i + 1] - interfaceOffsets[i]);
+                for (var j = interfaceOffsets[i]; j < interfaceOffsets[i + 1]; ++j) {
+                    output.writeInt(stringIndex(interfaces[j], strings, stringList));
+                }
+                output.writeShort(memberOffsets[i + 1] - memberOffsets[i]);
+                for (var j = memberOffsets[i]; j < memberOffsets[i + 1]; ++j) {
+                    output.writeInt(stringIndex(memberNames[j], strings, stringList));
+                    output.writeInt(stringIndex(memberDescriptors[j], strings, stringList));
+                    output.writeInt(stringIndex(memberSignatures[j], strings, stringList));
+                    output.writeInt(memberAccess[j]);
+                }
+            }
+            output.flush();
+
+            var result = new ByteArrayOutputStream();
+            output = new DataOutputStream(result);
+            output.writeInt(MAGIC);
+            output.writeShort(VERSION);
+            output.writeInt(stringList.size());
+            for (var string : stringList) {
+                output.writeUTF(string);
+            }
+            body.writeTo(output);
+            output.flush();
+            return result.toByteArray();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static int stringIndex(String string, Map<String, Integer> strings, List<String> stringList) {
+        if (string == null) {
+            return -1;
+        }
+        return strings.computeIfAbsent(string, _ -> {
+            stringList.add(string);
+            return stringList.size() - 1;
+        });
+    }
+
+    static SymbolIndex read(byte[] data) throws IOException {
+        var input = new DataInputStream(new ByteArrayInputStream(data));
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a symbol index");
+        }
+        var version = input.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported symbol index version " + version);
+        }
+        var strings = new String[input.readInt()];
+        for (var i = 0; i < strings.length; ++i) {
+            strings[i] = input.readUTF();
+        }
+
+        var classCount = input.readInt();
+        var classNames = new String[classCount];
+        var classAccess = new int[classCount];
+        var superclasses = new String[classCount];
+        var interfaceOffsets = new int[classCount + 1];
+        var interfaces = new ArrayList<String>();
+        var memberOffsets = new int[classCount + 1];
+        var members = new MemberArrays();
+        for (var i = 0; i < classCount; ++i) {
+            classNames[i] = string(strings, input.readInt());
+            classAccess[i] = input.readInt();
+            superclasses[i] = string(strings, input.readInt());
+            var interfaceCount = input.readUnsignedShort();
+            for (var j = 0; j < interfaceCount; ++j) {
+                interfaces.add(string(strings, input.readInt()));
+            }
+            interfaceOffsets[i + 1] = interfaces.size();
+            var memberCount = input.readUnsignedShort();
+            for (var j = 0; j < memberCount; ++j) {
+                members.add(string(strings, input.readInt()), string(strings, input.readInt()),
+                        string(strings, input.readInt()), input.readInt());
+            }
+            memberOffsets[i + 1] = members.size;
+        }
+        return new SymbolIndex(classNames, classAccess, superclasses, interfaceOffsets,
+                interfaces.toArray(new String[0]), memberOffsets, members.names(), members.descriptors(),
+                members.signatures(), members.access());
+    }
+
+    private static String string(String[] strings, int index) throws IOException {
+        if (index < 0) {
+            return null;
+        }
+        if (index >= strings.length) {
+            throw new IOException("Symbol index refers to missing string " + index);
+        }
+        return strings[index];
+    }
+
+    private static class MemberArrays {
+        String[] names = new String[1024];
+        String[] descriptors = new String[1024];
+        String[] signatures = new String[1024];
+        int[] access = new int[1024];
+        int size;
+
+        void add(String name, String descriptor, String signature, int memberAccess) {
+            if (size == names.length) {
+                var capacity = size * 2;
+                names = Arrays.copyOf(names, capacity);
+                descriptors = Arrays.copyOf(descriptors, capacity);
+                signatures = Arrays.copyOf(signatures, capacity);
+                access = Arrays.copyOf(access, capacity);
+            }
+            names[size] = name;
+            descriptors[size] = descriptor;
+            signatures[size] = signature;
+            access[size] = memberAccess;
+            size++;
+        }
+
+        String[] names() {
+            return Arrays.copyOf(names, size);
+        }
+
+        String[] descriptors() {
+            return Arrays.copyOf(descriptors, size);
+        }
+
+        String[] signatures() {
+            return Arrays.copyOf(signatures, size);
+        }
+
+        int[] access() {
+            return Arrays.copyOf(access, size);
+        }
+    }
+
+    // Collects classes from class files. Private and synthetic classes and members are skipped,
+    // as well as package-private ones, since they can't be used outside of their packages.
+    static class Builder {
+        private final Map<String, String> strings = new HashMap<>();
+        private final Map<String, ClassEntry> classes = new HashMap<>();
+
+        void addClasses(FileSet files) {
+            for (var file : files.getFiles()) {
+                if (file.path.endsWith(".class") && !file.path.equals("module-info.class")
+                        && !file.path.startsWith("META-INF/")) {
+                    addClass(file.getData());
+                }
+            }
+        }
+
+        void addClass(byte[] data) {
+            var entry = new ClassEntry();
+            new ClassReader(data).accept(new ClassVisitor(Opcodes.ASM9) {
+                @Override
+                public void visit(int version, int access, String name, String signature, String superName,
+                        String[] interfaces) {
+                    entry.name = intern(name);
+                    entry.access = access;
+                    entry.superclass = intern(superName);
+                    if (interfaces != null) {
+                        for (var itf : interfaces) {
+                            entry.interfaces.add(intern(itf));
+                        }
+                    }
+                }
+
+                @Override
+                public void visitInnerClass(String name, String outerName, String innerName, int access) {
+                    if (name.equals(entry.name)) {
+                        entry.access = (entry.access & ~(Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED
+                                | Opcodes.ACC_PRIVATE)) | access;
+                    }
+                }
+
+                @Override
+                public FieldVisitor visitField(int access, String name, String descriptor, String signature,
+                        Object value) {
+                    addMember(entry, access, name, descriptor, signature);
+                    return null;
+                }
+
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                        String[] exceptions) {
+                    if (!name.startsWith("<")) {
+                        addMember(entry, access, name, descriptor, signature);
+                    }
+                    return null;
+                }
+            }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+            if (isVisible(entry.access) && (entry.access & Opcodes.ACC_MODULE) == 0) {
+                classes.put(entry.name, entry);
+            }
+        }
+
+        private void addMember(ClassEntry entry, int access, String name, String descriptor, String signature) {
+            if (!isVisible(access) || ((access & Opcodes.ACC_BRIDGE) != 0 && descriptor.startsWith("("))) {
+                return;
+            }
+            var member = new MemberEntry();
+            member.name = intern(name);
+            member.descriptor = intern(descriptor);
+            member.signature = intern(signature);
+            member.access = access;
+            entry.members.add(member);
+        }
+
+        private static boolean isVisible(int access) {
+            return (access & (Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED)) != 0
+                    && (access & Opcodes.ACC_SYNTHETIC) == 0;
+        }
+
+        private String intern(String string) {
+            return string != null ? strings.computeIfAbsent(string, s -> s) : null;
+        }
+
+        SymbolIndex build() {
+            var sortedClasses = new ArrayList<>(classes.values());
+            sortedClasses.sort((a, b) -> a.name.compareTo(b.name));
+            var classNames = new String[sortedClasses.size()];
+            var classAccess = new int[sortedClasses.size()];
+            var superclasses = new String[sortedClasses.size()];
+            var interfaceOffsets = new int[sortedClasses.size() + 1];
+            var interfaces = new ArrayList<String>();
+            var memberOffsets = new int[sortedClasses.size() + 1];
+            var members = new MemberArrays();
+            for (var i = 0; i < sortedClasses.size(); ++i) {
+                var cls = sortedClasses.get(i);
+                classNames[i] = cls.name;
+                classAccess[i] = cls.access;
+                superclasses[i] = cls.superclass;
+                interfaces.addAll(cls.interfaces);
+                interfaceOffsets[i + 1] = interfaces.size();
+                cls.members.sort((a, b) -> a.name.compareTo(b.name));
+                for (var member : cls.members) {
+                    members.add(member.name, member.descriptor, member.signature, member.access);
+                }
+                memberOffsets[i + 1] = members.size;
+            }
+            return new SymbolIndex(classNames, classAccess, superclasses, interfaceOffsets,
+                    interfaces.toArray(new String[0]), memberOffsets, members.names(), members.descriptors(),
+                    members.signatures(), members.access());
+        }
+    }
+
+    private static class ClassEntry {
+        String name;
+        int access;
+        String superclass;
+        final List<String> interfaces = new ArrayList<>();
+        final List<MemberEntry> members = new ArrayList<>();
+    }
+
+    private static class MemberEntry {
+        String name;
+        String descriptor;
+        String signature;
+        int access;
+    }
+}
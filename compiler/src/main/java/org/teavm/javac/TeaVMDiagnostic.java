@@ -22,11 +22,22 @@ import org.teavm.jso.JSExport;
 import org.teavm.jso.JSProperty;
 
 public class TeaVMDiagnostic extends BaseDiagnostic {
-    private Problem problem;
-    private String message;
+    private final String severity;
+    private final String message;
+    private final int lineNumber;
+    private final String fileName;
 
     public TeaVMDiagnostic(Problem problem) {
-        this.problem = problem;
+        severity = switch (problem.getSeverity()) {
+            case ERROR -> "error";
+            case WARNING -> "warning";
+        };
+        var consumer = new DefaultProblemTextConsumer();
+        problem.render(consumer);
+        message = consumer.getText();
+        var location = problem.getLocation() != null ? problem.getLocation().getSourceLocation() : null;
+        lineNumber = location != null ? location.getLine() : -1;
+        fileName = location != null ? location.getFileName() : null;
     }
 
     @Override
@@ -40,41 +51,27 @@ public class TeaVMDiagnostic extends BaseDiagnostic {
     @JSExport
     @JSProperty
     public String getSeverity() {
-        return switch (problem.getSeverity()) {
-            case ERROR -> "error";
-            case WARNING -> "warning";
-        };
+        return severity;
     }
 
     @Override
     @JSExport
     @JSProperty
     public String getMessage() {
-        if (message == null) {
-            var consumer = new DefaultProblemTextConsumer();
-            problem.render(consumer);
-            message = consumer.getText();
-        }
-        return problem.getText();
+        return message;
     }
 
     @Override
     @JSExport
     @JSProperty
     public int getLineNumber() {
-        if (problem.getLocation().getSourceLocation() == null) {
-            return -1;
-        }
-        return problem.getLocation().getSourceLocation().getLine();
+        return lineNumber;
     }
 
     @Override
     @JSExport
     @JSProperty
     public String getFileName() {
-        if (problem.getLocation().getSourceLocation() == null) {
-            return null;
-        }
-        return problem.getLocation().getSourceLocation().getFileName();
+        return fileName;
     }
 }
@@ -18,31 +18,52 @@ package org.teavm.javac;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.function.Consumer;
+import org.teavm.javac.protocol.BuildStatsInfo;
+import org.teavm.javac.protocol.CancelMessage;
 import org.teavm.javac.protocol.CompilationResultMessage;
 import org.teavm.javac.protocol.CompileMessage;
-import org.teavm.javac.protocol.CompilerDiagnosticMessage;
 import org.teavm.javac.protocol.ErrorMessage;
 import org.teavm.javac.protocol.LoadStdlibMessage;
-import org.teavm.javac.protocol.TeaVMDiagnosticMessage;
+import org.teavm.javac.protocol.PatchFileMessage;
+import org.teavm.javac.protocol.SourceFileMessage;
+import org.teavm.javac.protocol.StatsMessage;
 import org.teavm.javac.protocol.TeaVMPhaseMessage;
+import org.teavm.javac.protocol.Transferables;
 import org.teavm.javac.protocol.WorkerMessage;
+import org.teavm.jso.JSBody;
+import org.teavm.jso.JSObject;
+import org.teavm.jso.JSProperty;
 import org.teavm.jso.ajax.XMLHttpRequest;
 import org.teavm.jso.browser.Window;
 import org.teavm.jso.core.JSArray;
+import org.teavm.jso.core.JSArrayReader;
 import org.teavm.jso.core.JSObjects;
 import org.teavm.jso.core.JSPromise;
 import org.teavm.jso.core.JSString;
 import org.teavm.jso.dom.events.MessageEvent;
+import org.teavm.jso.streams.ReadableStream;
+import org.teavm.jso.streams.ReadableStreamDefaultReader;
 import org.teavm.jso.typedarrays.ArrayBuffer;
 import org.teavm.jso.typedarrays.Int8Array;
-import org.teavm.vm.TeaVMPhase;
 
 public final class Worker {
+    private static final int MAX_DIAGNOSTICS = 100;
     private boolean isBusy;
+    private final Queue<QueuedRequest> queue = new PriorityQueue<>();
+    private int sequence;
+    private boolean processingScheduled;
+    private double peakUsedHeap = -1;
     private final String SOURCE_FILE_NAME = "Main.java";
     private String mainClass;
     private final Compiler compiler;
+    private final Storage storage = BrowserCacheStorage.isSupported()
+            ? new BrowserCacheStorage("teavm-javac-classlib")
+            : new MemoryStorage();
 
     Worker(Compiler compiler) {
         this.compiler = compiler;
@@ -56,36 +77,207 @@ public final class Worker {
 
     private void handleEvent(MessageEvent event) {
         var request = (WorkerMessage) event.getData();
+        log("Message received: " + request.getId());
+        if (request.getCommand().equals("cancel")) {
+            cancel((CancelMessage) request);
+        } else if (request.getCommand().equals("stats")) {
+            respondStats(request);
+        } else if (isFileCommand(request.getCommand())) {
+            updateFiles(request);
+        } else {
+            enqueue(request);
+        }
+    }
+
+    private void applyQueuedText() {
+        String text = null;
+        var latestSequence = -1;
+        for (var queued : queue) {
+            if (isBuildCommand(queued.message.getCommand())) {
+                var message = (CompileMessage) queued.message;
+                if (isPresent(message.getText())) {
+                    if (queued.sequence > latestSequence) {
+                        latestSequence = queued.sequence;
+                        text = message.getText();
+                    }
+                    message.setText(null);
+                }
+            }
+        }
+        if (text != null) {
+            createSourceFile(text);
+        }
+    }
+
+    private static boolean isFileCommand(String command) {
+        return command.equals("add-file") || command.equals("remove-file") || command.equals("patch-file");
+    }
+
+    // Files are updated immediately rather than queued: compilation is synchronous, so it can't be
+    // in progress here, and queued compile requests should build the latest state of the project anyway.
+    // Text of queued requests was sent earlier, so it's applied first, otherwise it would overwrite the update.
+    private void updateFiles(WorkerMessage request) {
+        applyQueuedText();
+        try {
+            switch (request.getCommand()) {
+                case "add-file": {
+                    var message = (SourceFileMessage) request;
+                    compiler.addSourceFile(message.getName(), message.getText());
+                    break;
+                }
+                case "remove-file":
+                    compiler.removeSourceFile(((SourceFileMessage) request).getName());
+                    break;
+                case "patch-file": {
+                    var message = (PatchFileMessage) request;
+                    // TextEdit and SourceFileEdit describe the same JS object on both sides of the protocol
+                    //noinspection unchecked
+                    var edits = (JSArrayReader<SourceFileEdit>) (JSArrayReader<?>) message.getEdits();
+                    compiler.patchSourceFile(message.getName(), edits);
+                    break;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            Window.worker().postMessage(createErrorResponse(request, e.getMessage()));
+            return;
+        }
+        respondOk(request);
+    }
+
+    // A compile request supersedes queued compile and check requests for the same document,
+    // while a check request only supersedes queued checks.
+    private void enqueue(WorkerMessage request) {
+        if (isBuildCommand(request.getCommand())) {
+            var document = documentOf((CompileMessage) request);
+            var iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                var queued = iterator.next().message;
+                if (supersedes(request.getCommand(), queued.getCommand())
+                        && documentOf((CompileMessage) queued).equals(document)) {
+                    log("Request " + queued.getId() + " superseded by " + request.getId());
+                    iterator.remove();
+                    respondCancelled(queued);
+                }
+            }
+        }
+        queue.add(new QueuedRequest(request, priorityOf(request.getCommand()), sequence++));
+        scheduleProcessing();
+    }
+
+    private static boolean isBuildCommand(String command) {
+        return command.equals("compile") || command.equals("check");
+    }
+
+    private static boolean supersedes(String command, String queuedCommand) {
+        return queuedCommand.equals("check") || (command.equals("compile") && queuedCommand.equals("compile"));
+    }
+
+    private void cancel(CancelMessage request) {
+        var iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            var queued = iterator.next().message;
+            if (queued.getId().equals(request.getTargetId())) {
+                iterator.remove();
+                respondCancelled(queued);
+                break;
+            }
+        }
+        respondOk(request);
+    }
+
+    private void respondStats(WorkerMessage request) {
+        StatsMessage response = JSObjects.createWithoutProto();
+        response.setId(request.getId());
+        response.setCommand("stats");
+        var last = compiler.getLastBuildStats();
+        response.setLast(last != null ? toInfo(last) : null);
+        response.setCumulative(toInfo(compiler.getCumulativeStats()));
+        response.setUsedHeap(sampleHeap());
+        response.setPeakUsedHeap(peakUsedHeap);
+        Window.worker().postMessage(response);
+    }
+
+    private static BuildStatsInfo toInfo(BuildStats stats) {
+        BuildStatsInfo info = JSObjects.createWithoutProto();
+        info.setOperation(stats.getOperation());
+        info.setBuildCount(stats.getBuildCount());
+        info.setResultCacheHits(stats.getResultCacheHits());
+        info.setParseCacheHits(stats.getParseCacheHits());
+        info.setDuration(stats.getDuration());
+        info.setPhaseNames(stats.getPhaseNames());
+        info.setPhaseDurations(stats.getPhaseDurations());
+        info.setSdkFilesRead(stats.getSdkFilesRead());
+        info.setClasslibFilesRead(stats.getClasslibFilesRead());
+        info.setClassPathFilesRead(stats.getClassPathFilesRead());
+        info.setDecodedBytes(stats.getDecodedBytes());
+        info.setOutputFiles(stats.getOutputFiles());
+        info.setOutputBytes(stats.getOutputBytes());
+        info.setGenerationCacheHits(stats.getGenerationCacheHits());
+        info.setGenerationCacheMisses(stats.getGenerationCacheMisses());
+        return info;
+    }
+
+    private double sampleHeap() {
+        var used = usedHeap();
+        peakUsedHeap = Math.max(peakUsedHeap, used);
+        return used;
+    }
+
+    // WebAssembly GC objects live in JS heap, so this covers compiler state too. Only Chromium reports it.
+    @JSBody(script = "return self.performance && performance.memory ? performance.memory.usedJSHeapSize : -1;")
+    private static native double usedHeap();
+
+    private String documentOf(CompileMessage request) {
+        var document = request.getDocument();
+        return isPresent(document) ? document : SOURCE_FILE_NAME;
+    }
+
+    private static int priorityOf(String command) {
+        return command.equals("load-classlib") ? 0 : 1;
+    }
+
+    // Processing is postponed to a separate task, so that messages which arrived while
+    // the worker was busy are all enqueued (and superseded ones are dropped) before choosing the next one.
+    private void scheduleProcessing() {
+        if (!processingScheduled && !isBusy && !queue.isEmpty()) {
+            processingScheduled = true;
+            Window.setTimeout(this::processNext, 0);
+        }
+    }
+
+    private void processNext() {
+        processingScheduled = false;
+        var next = queue.poll();
+        if (next == null) {
+            return;
+        }
+        var request = next.message;
         try {
-            processResponse(request);
+            processRequest(request);
         } catch (Throwable e) {
             log("Error occurred");
             e.printStackTrace();
+            isBusy = false;
             Window.worker().postMessage(createErrorResponse(request, "Error occurred processing message: "
                     + e.getMessage()));
         }
+        sampleHeap();
+        scheduleProcessing();
     }
 
     private long initializationStartTime;
 
-    private void processResponse(WorkerMessage request) throws Exception {
-        log("Message received: " + request.getId());
-
-        if (isBusy) {
-            log("Responded busy status");
-            Window.worker().postMessage(createErrorResponse(request, "Busy"));
-            return;
-        }
-
+    private void processRequest(WorkerMessage request) throws Exception {
         isBusy = true;
         switch (request.getCommand()) {
             case "load-classlib":
                 var loadLibReq = (LoadStdlibMessage) request;
-                init(request, loadLibReq.getUrl(), loadLibReq.getRuntimeUrl(), success -> {
+                init(loadLibReq, success -> {
                     if (success) {
                         respondOk(request);
                     }
                     isBusy = false;
+                    scheduleProcessing();
                 });
                 break;
             case "compile":
@@ -93,26 +285,73 @@ public final class Worker {
                 log("Done processing message: " + request.getId());
                 isBusy = false;
                 break;
+            case "check":
+                check((CompileMessage) request);
+                log("Done processing message: " + request.getId());
+                isBusy = false;
+                break;
+            default:
+                isBusy = false;
+                Window.worker().postMessage(createErrorResponse(request, "Unknown command: "
+                        + request.getCommand()));
+                break;
         }
     }
 
     private void compileAll(CompileMessage request) throws IOException {
-        createSourceFile(request.getText());
+        if (isPresent(request.getText())) {
+            createSourceFile(request.getText());
+        }
 
         CompilationResultMessage response = JSObjects.createWithoutProto();
         response.setId(request.getId());
         response.setCommand("compilation-complete");
 
-        if (doCompile(request) && detectMainClass(request) && generateWebAssembly(request.getId())) {
-            response.setStatus("successful");
-            response.setScript(readResultingFile());
-        } else {
-            response.setStatus("errors");
+        var diagnostics = new DiagnosticBatch(request.getId(), MAX_DIAGNOSTICS);
+        var phaseReg = compiler.onPhase(event -> reportPhase(request, event, diagnostics));
+        try {
+            if (doCompile(diagnostics) && detectMainClass(diagnostics) && generateWebAssembly(diagnostics)) {
+                response.setStatus("successful");
+                response.setScript(readResultingFile());
+            } else {
+                response.setStatus("errors");
+            }
+        } finally {
+            phaseReg.destroy();
+        }
+        diagnostics.finish();
+
+        Window.worker().postMessage(response, Transferables.of(response.getScript()));
+    }
+
+    private void check(CompileMessage request) {
+        if (isPresent(request.getText())) {
+            createSourceFile(request.getText());
+        }
+
+        CompilationResultMessage response = JSObjects.createWithoutProto();
+        response.setId(request.getId());
+        response.setCommand("check-complete");
+
+        var diagnostics = new DiagnosticBatch(request.getId(), MAX_DIAGNOSTICS);
+        var reg = compiler.onDiagnostic(diagnostic -> diagnostics.add((JavaDiagnostic) diagnostic));
+        try {
+            response.setStatus(compiler.check() ? "successful" : "errors");
+        } finally {
+            reg.destroy();
         }
+        diagnostics.finish();
 
         Window.worker().postMessage(response);
     }
 
+    private void respondCancelled(WorkerMessage message) {
+        WorkerMessage response = JSObjects.createWithoutProto();
+        response.setCommand("cancelled");
+        response.setId(message.getId());
+        Window.worker().postMessage(response);
+    }
+
     private void respondOk(WorkerMessage message) {
         WorkerMessage response = JSObjects.createWithoutProto();
         response.setCommand("ok");
@@ -128,75 +367,32 @@ public final class Worker {
         return message;
     }
 
-    private void init(WorkerMessage request, String url, String runtimeUrl, Consumer<Boolean> next) {
+    private void init(LoadStdlibMessage request, Consumer<Boolean> next) {
         log("Initializing");
 
         initializationStartTime = System.currentTimeMillis();
-        loadTeaVMClasslib(request, url, runtimeUrl, success -> {
+        compiler.setIncrementalGeneration(request.isIncrementalGeneration());
+        loadTeaVMClasslib(request, success -> {
             long end = System.currentTimeMillis();
             log("Initialized in " + (end - initializationStartTime) + " ms");
             next.accept(success);
         });
     }
 
-    private boolean doCompile(WorkerMessage request) {
-        var requestId = request.getId();
-        var reg = compiler.onDiagnostic(diagnostic -> handleDiagnostic((JavaDiagnostic) diagnostic, requestId));
+    private boolean doCompile(DiagnosticBatch diagnostics) {
+        var reg = compiler.onDiagnostic(diagnostic -> diagnostics.add((JavaDiagnostic) diagnostic));
         var result = compiler.compile();
         reg.destroy();
+        diagnostics.flush();
         return result;
     }
 
-    private void handleDiagnostic(JavaDiagnostic diagnostic, String requestId) {
-        CompilerDiagnosticMessage response = JSObjects.createWithoutProto();
-        response.setCommand("compiler-diagnostic");
-        response.setId(requestId);
-
-        response.setSeverity(diagnostic.getSeverity());
-        response.setFileName(diagnostic.getFileName());
-
-        response.setStartPosition(diagnostic.getStartPosition());
-        response.setPosition(diagnostic.getPosition());
-        response.setEndPosition( diagnostic.getEndPosition());
-
-        response.setLineNumber(diagnostic.getLineNumber());
-        response.setColumnNumber(diagnostic.getColumnNumber());
-
-        response.setMessage(diagnostic.getMessage());
-
-        Window.worker().postMessage(response);
-    }
-
-    private void handleTeaVMDiagnostic(TeaVMDiagnostic diagnostic, String requestId) {
-        CompilerDiagnosticMessage response = JSObjects.createWithoutProto();
-        response.setCommand("diagnostic");
-        response.setId(requestId);
-
-        response.setSeverity(diagnostic.getSeverity());
-        response.setFileName(diagnostic.getFileName());
-
-        response.setLineNumber(diagnostic.getLineNumber());
-        response.setColumnNumber(0);
-
-        response.setMessage(diagnostic.getMessage());
-
-        Window.worker().postMessage(response);
-    }
-
-    private long lastPhaseTime = System.currentTimeMillis();
-    private TeaVMPhase lastPhase;
-
-    private boolean detectMainClass(WorkerMessage request) throws IOException {
+    private boolean detectMainClass(DiagnosticBatch diagnostics) throws IOException {
         var candidates = compiler.detectMainClasses();
         if (candidates.length != 1) {
             var text = candidates.length == 0 ? "Main method not found" : "Multiple main methods found";
-            TeaVMDiagnosticMessage message = JSObjects.createWithoutProto();
-            message.setId(request.getId());
-            message.setCommand("diagnostic");
-            message.setSeverity("ERROR");
-            message.setText(text);
-            message.setFileName(null);
-            Window.worker().postMessage(message);
+            diagnostics.add("error", null, -1, text);
+            diagnostics.flush();
             return false;
         }
 
@@ -205,7 +401,7 @@ public final class Worker {
         return true;
     }
 
-    private boolean generateWebAssembly(String requestId) {
+    private boolean generateWebAssembly(DiagnosticBatch diagnostics) {
         var options = new WebAssemblyCompilationOptions() {
             @Override
             public JSString getOutputName() {
@@ -217,43 +413,230 @@ public final class Worker {
                 return JSString.valueOf(mainClass);
             }
         };
-        var reg = compiler.onDiagnostic(diagnostic -> handleTeaVMDiagnostic((TeaVMDiagnostic) diagnostic, requestId));
+        var reg = compiler.onDiagnostic(diagnostic -> diagnostics.add((TeaVMDiagnostic) diagnostic));
         var result = compiler.generateWebAssembly(options);
         reg.destroy();
+        diagnostics.flush();
+        logCacheHitRatio();
         return result;
     }
 
-    private void reportPhase(WorkerMessage request, TeaVMPhase phase) {
+    private void logCacheHitRatio() {
+        var hits = compiler.getGenerationCacheHitCount();
+        var total = hits + compiler.getGenerationCacheMissCount();
+        if (total > 0) {
+            log("Generation cache hits: " + hits + "/" + total + " (" + (hits * 100 / total) + "%)");
+        }
+    }
+
+    private void reportPhase(WorkerMessage request, PhaseEvent event, DiagnosticBatch diagnostics) {
+        if (event.getEvent().equals("end")) {
+            diagnostics.flush();
+        }
         TeaVMPhaseMessage phaseMessage = JSObjects.createWithoutProto();
         phaseMessage.setId(request.getId());
         phaseMessage.setCommand("phase");
-        phaseMessage.setPhase(phase.name());
+        phaseMessage.setTool(event.getTool());
+        phaseMessage.setPhase(event.getPhase());
+        phaseMessage.setEvent(event.getEvent());
+        phaseMessage.setElapsed(event.getElapsed());
         Window.worker().postMessage(phaseMessage);
     }
 
-    private void loadTeaVMClasslib(WorkerMessage request, String url, String runtimeUrl, Consumer<Boolean> next) {
+    private void loadTeaVMClasslib(LoadStdlibMessage request, Consumer<Boolean> next) {
         File baseDir = new File("/teavm-stdlib");
         baseDir.mkdirs();
 
-        JSPromise.all(JSArray.of(downloadFile(url), downloadFile(runtimeUrl)))
-                .then(arr -> {
-                    boolean success;
-                    var file = arr.get(0);
-                    var runtimeFile = arr.get(1);
-                    try {
-                        compiler.setSdk(file);
-                        compiler.setTeaVMClasslib(runtimeFile);
-                        success = true;
-                    } catch (IOException e) {
-                        success = false;
-                        Window.worker().postMessage(createErrorResponse(request, "Error occurred downloading classlib: "
-                                + e.getMessage()));
+        var revalidations = new ArrayList<Runnable>();
+        var sdk = loadArchive(request.getData(), request.getUrl(), compiler.createSdkLoader(), revalidations);
+        var runtime = loadArchive(request.getRuntimeData(), request.getRuntimeUrl(),
+                compiler.createTeaVMClasslibLoader(), revalidations);
+        JSPromise.all(JSArray.of(sdk, runtime))
+                .then(_ -> {
+                    next.accept(true);
+                    if (!request.isSkipRevalidation()) {
+                        revalidations.forEach(Runnable::run);
+                    }
+                    if (request.isInflateNatively()) {
+                        inflateClasslib();
                     }
-                    next.accept(success);
+                    return null;
+                }, error -> {
+                    Window.worker().postMessage(createErrorResponse(request, "Error occurred downloading classlib: "
+                            + error));
+                    next.accept(false);
                     return null;
                 });
     }
 
+    private void inflateClasslib() {
+        if (!NativeInflation.isSupported()) {
+            return;
+        }
+        var startTime = System.currentTimeMillis();
+        compiler.inflateNatively().then(count -> {
+            log("Inflated " + count.intValue() + " files in " + (System.currentTimeMillis() - startTime) + " ms");
+            return null;
+        }, error -> {
+            log("Error inflating files: " + error);
+            return null;
+        });
+    }
+
+    private JSPromise<Boolean> loadArchive(Int8Array data, String url, ArchiveLoader loader,
+            List<Runnable> revalidations) {
+        if (isPresent(data)) {
+            return feedArchive(loader, data);
+        }
+        return loadArchive(url, loader, revalidations);
+    }
+
+    // Archives from storage are used right away, so that returning users don't wait for network.
+    // After initialization server is asked for the archive only if it changed since stored copy was
+    // downloaded, and a changed archive replaces stored one for the next session. Archive downloaded for
+    // the first time is stored before worker reports readiness, so that workers started after it find
+    // the archive in storage.
+    private JSPromise<Boolean> loadArchive(String url, ArchiveLoader loader, List<Runnable> revalidations) {
+        return storage.get(url).flatThen(cached -> {
+            var cachedHash = cached != null ? archiveContentHash(cached) : null;
+            if (cachedHash != null) {
+                log("Using stored " + url + ", content hash " + cachedHash);
+                revalidations.add(() -> revalidate(url, cachedHash));
+                return feedArchive(loader, cached);
+            }
+            return streamArchive(url, loader).flatThen(download -> archiveContentHash(download.data) != null
+                    ? storage.put(url, download.data, download.validator).then(_ -> true, _ -> true)
+                    : JSPromise.resolve(true));
+        });
+    }
+
+    // Copies stored without validator (e.g. downloaded without fetch API) are downloaded unconditionally
+    private void revalidate(String url, String cachedHash) {
+        if (!isFetchSupported()) {
+            return;
+        }
+        storage.getValidator(url)
+                .flatThen(validator -> fetchIfChanged(url, validator))
+                .flatThen(response -> {
+                    if (response == null) {
+                        log("Stored " + url + " is up to date");
+                        return JSPromise.resolve(false);
+                    }
+                    return readAll(response).flatThen(data -> {
+                        var hash = archiveContentHash(data);
+                        if (hash == null) {
+                            return JSPromise.resolve(false);
+                        }
+                        if (!hash.equals(cachedHash)) {
+                            log("Stored newer version of " + url);
+                        }
+                        return storage.put(url, data, validatorOf(response));
+                    });
+                })
+                .then(_ -> null, _ -> null);
+    }
+
+    private static JSPromise<Boolean> feedArchive(ArchiveLoader loader, Int8Array data) {
+        try {
+            loader.feed(data);
+            loader.finish();
+            return JSPromise.resolve(true);
+        } catch (IOException e) {
+            return JSPromise.reject(e.getMessage());
+        }
+    }
+
+    // Feeds archive to loader chunk by chunk while it's being downloaded, so that reading archive
+    // overlaps with network transfer. Resolves to the whole archive, to put it into storage.
+    private static JSPromise<Download> streamArchive(String url, ArchiveLoader loader) {
+        if (!isFetchSupported()) {
+            return downloadFile(url).flatThen(data -> feedArchive(loader, data).then(_ -> new Download(data, null)));
+        }
+        var startTime = System.currentTimeMillis();
+        return fetch(url).flatThen(response -> {
+            var whole = readAll(response);
+            return readChunks(response.getBody().getReader(), loader)
+                    .flatThen(_ -> {
+                        log("Streamed " + url + " in " + (System.currentTimeMillis() - startTime) + " ms");
+                        return whole.then(data -> new Download(data, validatorOf(response)));
+                    });
+        });
+    }
+
+    private static JSPromise<Boolean> readChunks(ReadableStreamDefaultReader reader, ArchiveLoader loader) {
+        return reader.read().flatThen(result -> {
+            try {
+                if (result.isDone()) {
+                    loader.finish();
+                    return JSPromise.resolve(true);
+                }
+                loader.feed(result.getValue());
+            } catch (IOException e) {
+                reader.cancel(JSString.valueOf(e.getMessage()));
+                return JSPromise.reject(e.getMessage());
+            }
+            return readChunks(reader, loader);
+        });
+    }
+
+    @JSBody(script = "return typeof fetch === 'function' && typeof ReadableStream === 'function';")
+    private static native boolean isFetchSupported();
+
+    @JSBody(params = "url", script = ""
+            + "return fetch(url).then(response => {"
+            + "if (!response.ok || !response.body) throw new Error('Error downloading file: ' + url);"
+            + "return response;"
+            + "});")
+    private static native JSPromise<FetchResponse> fetch(String url);
+
+    // Validator is either ETag or Last-Modified value, which can be told apart by the leading quote
+    @JSBody(params = { "url", "validator" }, script = ""
+            + "var headers = {};"
+            + "if (validator) {"
+            + "var isETag = validator.startsWith('\"') || validator.startsWith('W/');"
+            + "headers[isETag ? 'If-None-Match' : 'If-Modified-Since'] = validator;"
+            + "}"
+            + "return fetch(url, { headers: headers }).then(response => response.ok ? response : null);")
+    private static native JSPromise<FetchResponse> fetchIfChanged(String url, String validator);
+
+    @JSBody(params = "response", script = ""
+            + "return response.headers.get('ETag') || response.headers.get('Last-Modified');")
+    private static native String validatorOf(FetchResponse response);
+
+    // Reads a copy of response, must be called before response body is consumed
+    @JSBody(params = "response", script = "return response.clone().arrayBuffer().then(b => new Int8Array(b));")
+    private static native JSPromise<Int8Array> readAll(FetchResponse response);
+
+    interface FetchResponse extends JSObject {
+        @JSProperty
+        ReadableStream getBody();
+    }
+
+    private static class Download {
+        final Int8Array data;
+        final String validator;
+
+        Download(Int8Array data, String validator) {
+            this.data = data;
+            this.validator = validator;
+        }
+    }
+
+    private static String archiveContentHash(Int8Array data) {
+        var length = data.getLength();
+        if (length < ArchiveFormat.HEADER_SIZE + ArchiveFormat.TRAILER_SIZE) {
+            return null;
+        }
+        var header = new Int8Array(data.getBuffer(), data.getByteOffset(), ArchiveFormat.HEADER_SIZE);
+        var trailer = new Int8Array(data.getBuffer(), data.getByteOffset() + length - ArchiveFormat.TRAILER_SIZE,
+                ArchiveFormat.TRAILER_SIZE);
+        return ArchiveFormat.readContentHash(header.copyToJavaArray(), trailer.copyToJavaArray());
+    }
+
+
+    private static boolean isPresent(Object value) {
+        return value != null && !JSObjects.isUndefined(value);
+    }
 
     private static JSPromise<Int8Array> downloadFile(String url) {
         return new JSPromise<>((resolve, reject) -> {
@@ -280,4 +663,23 @@ public final class Worker {
     private Int8Array readResultingFile() {
         return compiler.getWebAssemblyOutputFile("app.wasm");
     }
+
+    private static class QueuedRequest implements Comparable<QueuedRequest> {
+        final WorkerMessage message;
+        final int priority;
+        final int sequence;
+
+        QueuedRequest(WorkerMessage message, int priority, int sequence) {
+            this.message = message;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(QueuedRequest o) {
+            return priority != o.priority
+                    ? Integer.compare(priority, o.priority)
+                    : Integer.compare(sequence, o.sequence);
+        }
+    }
 }
@@ -0,0 +1,171 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Reads zip central directory and extracts entries on demand, so that only requested
+// parts of an archive are ever copied from the underlying storage.
+class ZipIndex {
+    private static final int LOCAL_HEADER = 0x04034B50;
+    private static final int CENTRAL_HEADER = 0x02014B50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054B50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private final Source source;
+    private final Decompressor decompressor;
+    private final List<Entry> entries = new ArrayList<>();
+
+    ZipIndex(Source source, Decompressor decompressor) throws IOException {
+        this.source = source;
+        this.decompressor = decompressor;
+        readCentralDirectory();
+    }
+
+    List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    byte[] readData(Entry entry) throws IOException {
+        var data = readRawData(entry);
+        switch (entry.method) {
+            case STORED:
+                return data;
+            case DEFLATED:
+                return decompressor.inflate(data, 0, data.length, entry.size, entry.name);
+            default:
+                throw new IOException("Unsupported compression method " + entry.method + " of entry " + entry.name);
+        }
+    }
+
+    // Compressed entries get CompressedEntry loader, so that they can be inflated ahead of time,
+    // see NativeInflation
+    Supplier<byte[]> getLoader(Entry entry) {
+        if (entry.method == DEFLATED) {
+            return new CompressedEntry(entry.name, () -> {
+                try {
+                    return readRawData(entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, entry.size, decompressor);
+        }
+        return () -> {
+            try {
+                return readData(entry);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private byte[] readRawData(Entry entry) throws IOException {
+        var header = source.read(entry.headerOffset, 30);
+        if (readInt(header, 0) != LOCAL_HEADER) {
+            throw new IOException("Local header of entry " + entry.name + " not found");
+        }
+        var dataOffset = entry.headerOffset + 30 + readShort(header, 26) + readShort(header, 28);
+        if (dataOffset + entry.compressedSize > source.size()) {
+            throw new IOException("Entry " + entry.name + " is truncated");
+        }
+        return source.read(dataOffset, entry.compressedSize);
+    }
+
+    private void readCentralDirectory() throws IOException {
+        var size = source.size();
+        var tailSize = Math.min(size, END_OF_CENTRAL_DIRECTORY_SIZE + 0xFFFF);
+        var tail = source.read(size - tailSize, tailSize);
+        var end = -1;
+        for (var i = tailSize - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; --i) {
+            if (readInt(tail, i) == END_OF_CENTRAL_DIRECTORY) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) {
+            throw new IOException("Not a zip archive");
+        }
+        var count = readShort(tail, end + 10);
+        var directorySize = readInt(tail, end + 12);
+        var directoryOffset = readInt(tail, end + 16);
+        if (count == 0xFFFF || directorySize == -1 || directoryOffset == -1) {
+            throw new IOException("ZIP64 archives are not supported");
+        }
+        if (directoryOffset < 0 || directorySize < 0 || directoryOffset + directorySize > size) {
+            throw new IOException("Central directory points outside of archive");
+        }
+
+        var directory = source.read(directoryOffset, directorySize);
+        var offset = 0;
+        for (var i = 0; i < count; ++i) {
+            if (offset + 46 > directory.length || readInt(directory, offset) != CENTRAL_HEADER) {
+                throw new IOException("Central directory is corrupted");
+            }
+            var flags = readShort(directory, offset + 8);
+            var nameLength = readShort(directory, offset + 28);
+            var entry = new Entry();
+            entry.name = new String(directory, offset + 46, nameLength, StandardCharsets.UTF_8);
+            entry.method = readShort(directory, offset + 10);
+            entry.crc = readInt(directory, offset + 16);
+            entry.compressedSize = readInt(directory, offset + 20);
+            entry.size = readInt(directory, offset + 24);
+            entry.headerOffset = readInt(directory, offset + 42);
+            if ((flags & 1) != 0) {
+                throw new IOException("Entry " + entry.name + " is encrypted");
+            }
+            if (entry.compressedSize < 0 || entry.size < 0 || entry.headerOffset < 0) {
+                throw new IOException("ZIP64 archives are not supported");
+            }
+            if (!entry.name.endsWith("/")) {
+                entries.add(entry);
+            }
+            offset += 46 + nameLength + readShort(directory, offset + 30) + readShort(directory, offset + 32);
+        }
+    }
+
+    private static int readShort(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8);
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | ((data[offset + 1] & 0xFF) << 8)
+                | ((data[offset + 2] & 0xFF) << 16) | ((data[offset + 3] & 0xFF) << 24);
+    }
+
+    interface Source {
+        int size();
+
+        byte[] read(int offset, int length);
+    }
+
+    static final class Entry {
+        String name;
+        int method;
+        int crc;
+        int size;
+        int compressedSize;
+        int headerOffset;
+    }
+}
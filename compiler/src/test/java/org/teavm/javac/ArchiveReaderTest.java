@@ -0,0 +1,148 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveReaderTest {
+    @Test
+    void readsEntries() throws IOException {
+        var entries = TestArchives.sampleEntries();
+        var reader = new ArchiveReader(TestArchives.build(entries));
+
+        assertEquals(entries.keySet().stream().toList(),
+                reader.getEntries().stream().map(ArchiveReader.Entry::getName).toList());
+        for (var entry : entries.entrySet()) {
+            assertArrayEquals(entry.getValue(), reader.readData(entry.getKey()), entry.getKey());
+            assertArrayEquals(entry.getValue(), reader.getLoader(reader.getEntry(entry.getKey())).get(),
+                    entry.getKey());
+        }
+        assertNull(reader.readData("missing.class"));
+        assertEquals(TestArchives.expectedHash(entries), reader.getContentHash());
+    }
+
+    @Test
+    void deflatesCompressibleEntries() throws IOException {
+        var reader = new ArchiveReader(TestArchives.build(TestArchives.sampleEntries()));
+
+        assertTrue(reader.getLoader(reader.getEntry("java/lang/Object.class")) instanceof CompressedEntry);
+        assertFalse(reader.getLoader(reader.getEntry("META-INF/tiny.bin")) instanceof CompressedEntry);
+    }
+
+    @Test
+    void hashDependsOnContent() throws IOException {
+        var entries = TestArchives.sampleEntries();
+        var hash = new ArchiveReader(TestArchives.build(entries)).getContentHash();
+        entries.put("META-INF/tiny.bin", new byte[] { 1, 2, 4 });
+
+        assertNotEquals(hash, new ArchiveReader(TestArchives.build(entries)).getContentHash());
+    }
+
+    @Test
+    void rejectsTruncatedArchive() throws IOException {
+        var data = TestArchives.build(TestArchives.sampleEntries());
+
+        for (var length : new int[] { 0, 4, ArchiveFormat.HEADER_SIZE, data.length / 2, data.length - 1 }) {
+            assertThrows(IOException.class, () -> new ArchiveReader(Arrays.copyOf(data, length)),
+                    "length " + length);
+        }
+    }
+
+    @Test
+    void rejectsIndexPointingOutside() throws IOException {
+        var data = TestArchives.build(TestArchives.sampleEntries());
+        var indexOffset = data.length - 8;
+        writeInt(data, indexOffset, data.length);
+
+        var e = assertThrows(IOException.class, () -> new ArchiveReader(data));
+        assertEquals("Archive index points outside of archive", e.getMessage());
+    }
+
+    @Test
+    void rejectsEntryPointingOutside() throws IOException {
+        var entries = new LinkedHashMap<String, byte[]>();
+        entries.put("a", new byte[] { 1, 2, 3 });
+        var data = TestArchives.build(entries);
+        var indexOffset = ArchiveFormat.readInt(data, data.length - 8);
+        // count, name length, name, method, size, then stored size
+        var storedSizeOffset = indexOffset + 4 + 2 + 1 + 1 + 4;
+        writeInt(data, storedSizeOffset, Integer.MAX_VALUE);
+
+        var e = assertThrows(IOException.class, () -> new ArchiveReader(data));
+        assertEquals("Entry a points outside of archive", e.getMessage());
+    }
+
+    @Test
+    void rejectsUnsupportedVersion() throws IOException {
+        var data = TestArchives.build(TestArchives.sampleEntries());
+        data[5] = 2;
+
+        var e = assertThrows(IOException.class, () -> new ArchiveReader(data));
+        assertEquals("Unsupported archive version 2", e.getMessage());
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        var e = assertThrows(IOException.class,
+                () -> new ArchiveReader("not an archive at all".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("Not a classlib archive", e.getMessage());
+    }
+
+    @Test
+    void readsLegacyArchive() throws IOException {
+        var entries = TestArchives.sampleEntries();
+        var data = TestArchives.buildLegacy(entries);
+        var reader = new ArchiveReader(data);
+
+        for (var entry : entries.entrySet()) {
+            assertArrayEquals(entry.getValue(), reader.readData(entry.getKey()), entry.getKey());
+        }
+        assertEquals(ContentHash.of(TestArchives.gunzip(data)), reader.getContentHash());
+    }
+
+    @Test
+    void rejectsTruncatedLegacyEntry() throws IOException {
+        var entries = new LinkedHashMap<String, byte[]>();
+        entries.put("a/b", new byte[] { 1, 2, 3, 4 });
+        var decoded = TestArchives.gunzip(TestArchives.buildLegacy(entries));
+
+        var e = assertThrows(IOException.class, () -> new ArchiveReader(
+                TestArchives.gzip(Arrays.copyOf(decoded, decoded.length - 1))));
+        assertEquals("Entry a/b is truncated", e.getMessage());
+
+        e = assertThrows(IOException.class, () -> new ArchiveReader(TestArchives.gzip(Arrays.copyOf(decoded, 4))));
+        assertEquals("Archive is truncated", e.getMessage());
+    }
+
+    private static void writeInt(byte[] data, int offset, int value) {
+        data[offset] = (byte) (value >>> 24);
+        data[offset + 1] = (byte) (value >>> 16);
+        data[offset + 2] = (byte) (value >>> 8);
+        data[offset + 3] = (byte) value;
+    }
+}
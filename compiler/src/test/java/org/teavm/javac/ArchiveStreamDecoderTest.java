@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArchiveStreamDecoderTest {
+    @Test
+    void decodesArchiveInChunksOfAnySize() throws IOException {
+        var entries = TestArchives.sampleEntries();
+        var data = TestArchives.build(entries);
+
+        for (var chunkSize : new int[] { 1, 2, 7, 100, data.length }) {
+            var decoded = new LinkedHashMap<String, byte[]>();
+            var hash = decode(data, chunkSize, decoded);
+            assertEntries(entries, decoded);
+            assertEquals(TestArchives.expectedHash(entries), hash, "chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    void decodesEntriesLargerThanBuffer() throws IOException {
+        var entries = new LinkedHashMap<String, byte[]>();
+        var large = new byte[200 * 1024];
+        for (var i = 0; i < large.length; ++i) {
+            large[i] = (byte) (i * 31 + i / 7);
+        }
+        entries.put("large.bin", large);
+        entries.put("after.bin", new byte[] { 5, 6 });
+
+        var decoded = new LinkedHashMap<String, byte[]>();
+        decode(TestArchives.build(entries), 8192, decoded);
+        assertEntries(entries, decoded);
+    }
+
+    @Test
+    void agreesWithArchiveReader() throws IOException {
+        var data = TestArchives.build(TestArchives.sampleEntries());
+        var reader = new ArchiveReader(data);
+
+        var decoded = new LinkedHashMap<String, byte[]>();
+        assertEquals(reader.getContentHash(), decode(data, 13, decoded));
+        for (var entry : reader.getEntries()) {
+            assertArrayEquals(reader.readData(entry), decoded.get(entry.getName()), entry.getName());
+        }
+    }
+
+    @Test
+    void decodesLegacyArchive() throws IOException {
+        var entries = TestArchives.sampleEntries();
+        var data = TestArchives.buildLegacy(entries);
+
+        var decoded = new LinkedHashMap<String, byte[]>();
+        assertEquals(ContentHash.of(TestArchives.gunzip(data)), decode(data, 5, decoded));
+        assertEntries(entries, decoded);
+    }
+
+    @Test
+    void rejectsTruncatedArchive() throws IOException {
+        var data = TestArchives.build(TestArchives.sampleEntries());
+
+        for (var length : new int[] { 0, 3, ArchiveFormat.HEADER_SIZE, data.length / 2, data.length - 1 }) {
+            var truncated = Arrays.copyOf(data, length);
+            var e = assertThrows(IOException.class, () -> decode(truncated, 4, new LinkedHashMap<>()),
+                    "length " + length);
+            assertEquals("Archive is truncated", e.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsTruncatedLegacyArchive() throws IOException {
+        var entries = new LinkedHashMap<String, byte[]>();
+        entries.put("a/b", new byte[] { 1, 2, 3, 4 });
+        var decoded = TestArchives.gunzip(TestArchives.buildLegacy(entries));
+        var data = TestArchives.gzip(Arrays.copyOf(decoded, decoded.length - 1));
+
+        var e = assertThrows(IOException.class, () -> decode(data, 4, new LinkedHashMap<>()));
+        assertEquals("Entry a/b is truncated", e.getMessage());
+    }
+
+    @Test
+    void rejectsUnsupportedVersion() throws IOException {
+        var data = TestArchives.build(TestArchives.sampleEntries());
+        data[5] = 2;
+
+        var e = assertThrows(IOException.class, () -> decode(data, 64, new LinkedHashMap<>()));
+        assertEquals("Unsupported archive version 2", e.getMessage());
+    }
+
+    private static long decode(byte[] data, int chunkSize, Map<String, byte[]> entries) throws IOException {
+        var decoder = new ArchiveStreamDecoder((name, loader) -> entries.put(name, loader.get()),
+                JavaDecompressor.INSTANCE);
+        for (var offset = 0; offset < data.length; offset += chunkSize) {
+            decoder.feed(data, offset, Math.min(chunkSize, data.length - offset));
+        }
+        return decoder.finish();
+    }
+
+    private static void assertEntries(Map<String, byte[]> expected, Map<String, byte[]> actual) {
+        assertEquals(expected.keySet().stream().toList(), actual.keySet().stream().toList());
+        for (var entry : expected.entrySet()) {
+            assertArrayEquals(entry.getValue(), actual.get(entry.getKey()), entry.getKey());
+        }
+    }
+}
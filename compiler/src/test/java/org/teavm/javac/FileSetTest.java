@@ -0,0 +1,97 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+// Digests of file sets are used as result cache keys
+class FileSetTest {
+    @Test
+    void digestDependsOnPathsAndContent() {
+        var digest = files("A.java", "class A {}").getDigest();
+
+        assertEquals(digest, files("A.java", "class A {}").getDigest());
+        assertNotEquals(digest, files("B.java", "class A {}").getDigest());
+        assertNotEquals(digest, files("A.java", "class B {}").getDigest());
+    }
+
+    @Test
+    void digestChangesWhenFileIsRewritten() {
+        var files = files("A.class", "1");
+        var digest = files.getDigest();
+
+        files.get("A.class").setData(bytes("2"));
+        assertNotEquals(digest, files.getDigest());
+
+        files.get("A.class").setData(bytes("1"));
+        assertEquals(digest, files.getDigest());
+    }
+
+    @Test
+    void digestChangesWhenFileIsReplacedOrRemoved() {
+        var files = files("A.class", "1");
+        var digest = files.getDigest();
+
+        files.add("A.class").setLoader(() -> bytes("2"));
+        assertNotEquals(digest, files.getDigest());
+
+        files.add("A.class").setLoader(() -> bytes("1"));
+        assertEquals(digest, files.getDigest());
+
+        files.get("A.class").delete();
+        assertNotEquals(digest, files.getDigest());
+    }
+
+    @Test
+    void knownHashIsUsedWithoutLoading() {
+        var files = new FileSet();
+        var file = files.add("A.class");
+        file.setLoader(() -> {
+            throw new AssertionError("File should not be loaded");
+        });
+        file.setHash(ContentHash.of(bytes("1")));
+
+        assertEquals(files("A.class", "1").getDigest(), files.getDigest());
+        assertEquals(0, files.getReadCount());
+    }
+
+    @Test
+    void reportsFilesWrittenSinceVersion() {
+        var files = files("A.class", "1");
+        files.add("B.class").setData(bytes("2"));
+        var version = files.getContentVersion();
+        files.add("C.class").setData(bytes("3"));
+        files.get("A.class").setData(bytes("4"));
+
+        assertEquals(List.of("A.class", "C.class"),
+                files.getFilesWrittenSince(version).stream().map(file -> file.path).toList());
+    }
+
+    private static FileSet files(String path, String content) {
+        var files = new FileSet();
+        files.add(path).setLoader(() -> bytes(content));
+        return files;
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IncrementalCacheTest {
+    private final IncrementalCache cache = new IncrementalCache();
+    private final FileSet files = new FileSet();
+
+    @Test
+    void reportsNewClasses() {
+        add("a/b/C.class", 1);
+        add("D.class", 2);
+        add("resource.txt", 3);
+
+        assertEquals(Set.of("a.b.C", "D"), detect());
+        assertEquals(Set.of(), detect());
+    }
+
+    @Test
+    void doesNotLoadUnchangedFiles() {
+        add("A.class", 1);
+        detect();
+
+        assertEquals(Set.of(), detect());
+        assertEquals(0, files.getReadCount());
+    }
+
+    @Test
+    void reportsRewriteOfFileThatWasNotLoaded() {
+        add("A.class", 1);
+        detect();
+
+        files.get("A.class").setData(new byte[] { 2 });
+
+        assertEquals(Set.of("A"), detect());
+    }
+
+    @Test
+    void reportsRewriteOfLoadedFile() {
+        add("A.class", 1);
+        files.get("A.class").getData();
+        detect();
+
+        files.get("A.class").setData(new byte[] { 2 });
+
+        assertEquals(Set.of("A"), detect());
+    }
+
+    @Test
+    void ignoresRewriteWithSameContent() {
+        add("A.class", 1);
+        files.get("A.class").getData();
+        detect();
+
+        files.get("A.class").setData(new byte[] { 1 });
+
+        assertEquals(Set.of(), detect());
+    }
+
+    @Test
+    void comparesContentOfReplacedFiles() {
+        add("A.class", 1);
+        add("B.class", 1);
+        detect();
+
+        add("A.class", 1);
+        add("B.class", 2);
+
+        assertEquals(Set.of("B"), detect());
+    }
+
+    @Test
+    void reportsRemovedClasses() {
+        add("A.class", 1);
+        add("B.class", 1);
+        detect();
+
+        files.get("A.class").delete();
+
+        assertEquals(Set.of("A"), detect());
+    }
+
+    @Test
+    void looksIntoAllSetsOfClassPath() {
+        var other = new FileSet();
+        add("A.class", 1);
+        other.add("B.class").setData(new byte[] { 1 });
+
+        assertEquals(List.of("B"), cache.detectChangedClasses(List.of(other)));
+        assertEquals(Set.of("A"), Set.copyOf(cache.detectChangedClasses(List.of(files, other))));
+        assertEquals(Set.of("B"), Set.copyOf(cache.detectChangedClasses(List.of(files))));
+    }
+
+    private void add(String path, int content) {
+        files.add(path).setLoader(() -> new byte[] { (byte) content });
+    }
+
+    private Set<String> detect() {
+        return Set.copyOf(cache.detectChangedClasses(List.of(files)));
+    }
+}
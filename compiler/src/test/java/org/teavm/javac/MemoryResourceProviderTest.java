@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.teavm.parsing.resource.Resource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MemoryResourceProviderTest {
+    private final FileSet first = new FileSet();
+    private final FileSet second = new FileSet();
+    private final MemoryResourceProvider provider = new MemoryResourceProvider(List.of(first, second));
+
+    @Test
+    void earlierSetsShadowLaterOnes() throws IOException {
+        add(second, "A.class", 2);
+        assertEquals(2, read(provider.getResource("A.class")));
+
+        add(first, "A.class", 1);
+        assertEquals(1, read(provider.getResource("A.class")));
+
+        var contents = new ArrayList<Integer>();
+        for (var iter = provider.getResources("A.class"); iter.hasNext();) {
+            contents.add(read(iter.next()));
+        }
+        assertEquals(List.of(1, 2), contents);
+    }
+
+    @Test
+    void missingResource() {
+        add(first, "A.class", 1);
+
+        assertNull(provider.getResource("B.class"));
+        assertFalse(provider.getResources("B.class").hasNext());
+    }
+
+    @Test
+    void reusesResourcesUntilFileIsReplaced() throws IOException {
+        add(first, "A.class", 1);
+        add(second, "B.class", 2);
+        var a = provider.getResource("A.class");
+        var b = provider.getResource("B.class");
+
+        add(first, "C.class", 3);
+        assertSame(a, provider.getResource("A.class"));
+        assertSame(b, provider.getResource("B.class"));
+
+        add(first, "A.class", 4);
+        var replaced = provider.getResource("A.class");
+        assertNotSame(a, replaced);
+        assertEquals(4, read(replaced));
+        assertSame(b, provider.getResource("B.class"));
+
+        first.get("A.class").delete();
+        assertNull(provider.getResource("A.class"));
+    }
+
+    private static void add(FileSet files, String path, int content) {
+        files.add(path).setData(new byte[] { (byte) content });
+    }
+
+    private static int read(Resource resource) throws IOException {
+        try (var input = resource.open()) {
+            return input.read();
+        }
+    }
+}
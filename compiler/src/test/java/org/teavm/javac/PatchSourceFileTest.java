@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.teavm.jso.core.JSArrayReader;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PatchSourceFileTest {
+    private final Compiler compiler = new Compiler();
+
+    @Test
+    void appliesEditsOneAfterAnother() {
+        compiler.addSourceFile("A.java", "class A { int x; }");
+
+        // Second edit refers to offsets in text produced by the first one
+        compiler.patchSourceFile("A.java", edits(edit(10, 15, "long y"), edit(0, 0, "final ")));
+
+        assertEquals("final class A { long y; }", compiler.getSourceFile("A.java"));
+    }
+
+    @Test
+    void insertsAndDeletesAtBounds() {
+        compiler.addSourceFile("A.java", "abc");
+
+        compiler.patchSourceFile("A.java", edits(edit(3, 3, "d"), edit(0, 1, "")));
+
+        assertEquals("bcd", compiler.getSourceFile("A.java"));
+    }
+
+    @Test
+    void countsOffsetsInUtf16Units() {
+        compiler.addSourceFile("A.java", "\"\uD83D\uDE00\" + x");
+
+        compiler.patchSourceFile("A.java", edits(edit(7, 8, "y")));
+
+        assertEquals("\"\uD83D\uDE00\" + y", compiler.getSourceFile("A.java"));
+    }
+
+    @Test
+    void rejectsRangesOutOfBounds() {
+        compiler.addSourceFile("A.java", "class A {}");
+
+        for (var edit : List.of(edit(-1, 0, ""), edit(5, 4, ""), edit(0, 11, ""))) {
+            assertThrows(IllegalArgumentException.class, () -> compiler.patchSourceFile("A.java", edits(edit)));
+        }
+        assertEquals("class A {}", compiler.getSourceFile("A.java"));
+    }
+
+    @Test
+    void leavesFileIntactWhenLaterEditFails() {
+        compiler.addSourceFile("A.java", "class A {}");
+
+        var e = assertThrows(IllegalArgumentException.class,
+                () -> compiler.patchSourceFile("A.java", edits(edit(0, 5, "interface"), edit(20, 20, "x"))));
+
+        assertEquals("Range 20..20 is out of bounds of A.java (14 characters)", e.getMessage());
+        assertEquals("class A {}", compiler.getSourceFile("A.java"));
+    }
+
+    @Test
+    void rejectsMissingFile() {
+        var e = assertThrows(IllegalArgumentException.class,
+                () -> compiler.patchSourceFile("Missing.java", edits(edit(0, 0, "x"))));
+
+        assertEquals("Source file not found: Missing.java", e.getMessage());
+    }
+
+    private static SourceFileEdit edit(int start, int end, String text) {
+        return new SourceFileEdit() {
+            @Override
+            public int getStart() {
+                return start;
+            }
+
+            @Override
+            public int getEnd() {
+                return end;
+            }
+
+            @Override
+            public String getText() {
+                return text;
+            }
+        };
+    }
+
+    private static JSArrayReader<SourceFileEdit> edits(SourceFileEdit... edits) {
+        return new JSArrayReader<>() {
+            @Override
+            public int getLength() {
+                return edits.length;
+            }
+
+            @Override
+            public SourceFileEdit get(int index) {
+                return edits[index];
+            }
+        };
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultCacheTest {
+    private final ResultCache cache = new ResultCache();
+
+    @Test
+    void evictsLeastRecentlyUsedWhenSizeExceeded() {
+        cache.setCapacity(100);
+        cache.put("a", result(40));
+        cache.put("b", result(40));
+        cache.get("a");
+        cache.put("c", result(40));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenCountExceeded() {
+        cache.setEntryCapacity(2);
+        cache.put("a", result(1));
+        cache.put("b", result(1));
+        cache.put("c", result(1));
+
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    void shrinkingCapacityEvicts() {
+        cache.put("a", result(40));
+        cache.put("b", result(40));
+
+        cache.setCapacity(50);
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+
+        cache.setEntryCapacity(0);
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    void replacedResultIsNotCountedTwice() {
+        cache.setCapacity(100);
+        cache.put("a", result(40));
+        var replacement = result(40);
+        cache.put("a", replacement);
+        cache.put("b", result(40));
+
+        assertSame(replacement, cache.get("a"));
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    void doesNotStoreResultLargerThanCapacity() {
+        cache.setCapacity(100);
+        cache.put("a", result(40));
+        cache.put("large", result(200));
+
+        assertNull(cache.get("large"));
+        assertNotNull(cache.get("a"));
+    }
+
+    @Test
+    void keyIsCountedInSize() {
+        cache.setCapacity(10);
+        cache.put("0123456789", new ResultCache.Result(true));
+        cache.put("0123456789a", new ResultCache.Result(true));
+
+        assertNotNull(cache.get("0123456789"));
+        assertNull(cache.get("0123456789a"));
+    }
+
+    @Test
+    void diagnosticsAreCountedInSize() {
+        var result = new ResultCache.Result(false);
+        result.addDiagnostic(diagnostic("error", "A.java"));
+        // Fixed overhead of diagnostic, its message, file name and key
+        var size = 64 + "error".length() + "A.java".length() + 1;
+
+        cache.setCapacity(size - 1);
+        cache.put("a", result);
+        assertNull(cache.get("a"));
+
+        result = new ResultCache.Result(false);
+        result.addDiagnostic(diagnostic("error", "A.java"));
+        cache.setCapacity(size);
+        cache.put("a", result);
+        assertEquals(1, cache.get("a").diagnostics.size());
+    }
+
+    @Test
+    void zeroCapacityDisablesCache() {
+        assertTrue(cache.isEnabled());
+
+        cache.setCapacity(0);
+        assertFalse(cache.isEnabled());
+        cache.put("a", result(1));
+        assertNull(cache.get("a"));
+
+        cache.setCapacity(100);
+        cache.setEntryCapacity(0);
+        assertFalse(cache.isEnabled());
+        cache.put("a", result(1));
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void clearDropsAllResults() {
+        cache.setCapacity(100);
+        cache.put("a", result(40));
+        cache.clear();
+        cache.put("b", result(90));
+
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        cache.put("a", result(1));
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    private static ResultCache.Result result(int fileSize) {
+        var result = new ResultCache.Result(true);
+        result.addFile("f", new byte[fileSize]);
+        return result;
+    }
+
+    private static BaseDiagnostic diagnostic(String message, String fileName) {
+        return new BaseDiagnostic() {
+            @Override
+            public String getMessage() {
+                return message;
+            }
+
+            @Override
+            public String getFileName() {
+                return fileName;
+            }
+        };
+    }
+}
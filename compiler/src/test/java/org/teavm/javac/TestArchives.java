@@ -0,0 +1,87 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+final class TestArchives {
+    private TestArchives() {
+    }
+
+    // One entry that is deflated and one that is too small to benefit from compression
+    static Map<String, byte[]> sampleEntries() {
+        var entries = new LinkedHashMap<String, byte[]>();
+        entries.put("java/lang/Object.class", "class Object {}\n".repeat(200).getBytes(StandardCharsets.UTF_8));
+        entries.put("META-INF/tiny.bin", new byte[] { 1, 2, 3 });
+        entries.put("empty.txt", new byte[0]);
+        return entries;
+    }
+
+    static byte[] build(Map<String, byte[]> entries) throws IOException {
+        var output = new ByteArrayOutputStream();
+        try (var builder = new ArchiveBuilder(output)) {
+            for (var entry : entries.entrySet()) {
+                builder.append(entry.getKey(), entry.getValue());
+            }
+        }
+        return output.toByteArray();
+    }
+
+    static byte[] buildLegacy(Map<String, byte[]> entries) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            for (var entry : entries.entrySet()) {
+                var name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                output.writeShort(name.length);
+                output.write(name);
+                output.writeInt(entry.getValue().length);
+                output.write(entry.getValue());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] gzip(byte[] data) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new GZIPOutputStream(bytes)) {
+            output.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] gunzip(byte[] data) throws IOException {
+        try (var input = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return input.readAllBytes();
+        }
+    }
+
+    static long expectedHash(Map<String, byte[]> entries) {
+        var hash = ContentHash.EMPTY;
+        for (var entry : entries.entrySet()) {
+            hash = ContentHash.update(ContentHash.update(hash, entry.getKey()), ContentHash.of(entry.getValue()));
+        }
+        return hash;
+    }
+}
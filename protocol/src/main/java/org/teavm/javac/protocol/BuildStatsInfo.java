@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac.protocol;
+
+import org.teavm.jso.JSObject;
+import org.teavm.jso.JSProperty;
+
+// Mirrors BuildStats of compiler library
+public interface BuildStatsInfo extends JSObject {
+    @JSProperty
+    String getOperation();
+
+    @JSProperty
+    void setOperation(String operation);
+
+    @JSProperty
+    int getBuildCount();
+
+    @JSProperty
+    void setBuildCount(int buildCount);
+
+    @JSProperty
+    int getResultCacheHits();
+
+    @JSProperty
+    void setResultCacheHits(int resultCacheHits);
+
+    @JSProperty
+    int getParseCacheHits();
+
+    @JSProperty
+    void setParseCacheHits(int parseCacheHits);
+
+    @JSProperty
+    int getDuration();
+
+    @JSProperty
+    void setDuration(int duration);
+
+    @JSProperty
+    String[] getPhaseNames();
+
+    @JSProperty
+    void setPhaseNames(String[] phaseNames);
+
+    @JSProperty
+    int[] getPhaseDurations();
+
+    @JSProperty
+    void setPhaseDurations(int[] phaseDurations);
+
+    @JSProperty
+    int getSdkFilesRead();
+
+    @JSProperty
+    void setSdkFilesRead(int sdkFilesRead);
+
+    @JSProperty
+    int getClasslibFilesRead();
+
+    @JSProperty
+    void setClasslibFilesRead(int classlibFilesRead);
+
+    @JSProperty
+    int getClassPathFilesRead();
+
+    @JSProperty
+    void setClassPathFilesRead(int classPathFilesRead);
+
+    @JSProperty
+    double getDecodedBytes();
+
+    @JSProperty
+    void setDecodedBytes(double decodedBytes);
+
+    @JSProperty
+    int getOutputFiles();
+
+    @JSProperty
+    void setOutputFiles(int outputFiles);
+
+    @JSProperty
+    double getOutputBytes();
+
+    @JSProperty
+    void setOutputBytes(double outputBytes);
+
+    @JSProperty
+    int getGenerationCacheHits();
+
+    @JSProperty
+    void setGenerationCacheHits(int generationCacheHits);
+
+    @JSProperty
+    int getGenerationCacheMisses();
+
+    @JSProperty
+    void setGenerationCacheMisses(int generationCacheMisses);
+}
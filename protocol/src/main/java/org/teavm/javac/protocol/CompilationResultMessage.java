@@ -26,6 +26,7 @@ public interface CompilationResultMessage extends WorkerMessage {
     @JSProperty
     void setStatus(String status);
 
+    // Buffer is transferred rather than copied, see Transferables.of
     @JSProperty
     Int8Array getScript();
 
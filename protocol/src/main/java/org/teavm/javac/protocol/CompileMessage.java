@@ -19,9 +19,19 @@ package org.teavm.javac.protocol;
 import org.teavm.jso.JSProperty;
 
 public interface CompileMessage extends WorkerMessage {
+    // When present, replaces content of Main.java. Otherwise, project built from files
+    // passed by add-file/patch-file commands is compiled as is.
     @JSProperty
     String getText();
 
     @JSProperty
     void setText(String text);
+
+    // Identifies edited document. Queued compile requests for the same document
+    // are superseded by newer ones.
+    @JSProperty
+    String getDocument();
+
+    @JSProperty
+    void setDocument(String document);
 }
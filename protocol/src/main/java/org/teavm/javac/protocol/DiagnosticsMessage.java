@@ -0,0 +1,42 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac.protocol;
+
+import org.teavm.jso.JSProperty;
+import org.teavm.jso.core.JSArrayReader;
+
+public interface DiagnosticsMessage extends WorkerMessage {
+    // Only properties that describe diagnostic are set, command and id are not
+    @JSProperty
+    JSArrayReader<CompilerDiagnosticMessage> getCompilerDiagnostics();
+
+    @JSProperty
+    void setCompilerDiagnostics(JSArrayReader<CompilerDiagnosticMessage> diagnostics);
+
+    @JSProperty
+    JSArrayReader<TeaVMDiagnosticMessage> getDiagnostics();
+
+    @JSProperty
+    void setDiagnostics(JSArrayReader<TeaVMDiagnosticMessage> diagnostics);
+
+    // Number of diagnostics that exceeded the limit and were dropped, reported by the last batch of request
+    @JSProperty
+    int getSuppressed();
+
+    @JSProperty
+    void setSuppressed(int suppressed);
+}
@@ -17,6 +17,7 @@
 package org.teavm.javac.protocol;
 
 import org.teavm.jso.JSProperty;
+import org.teavm.jso.typedarrays.Int8Array;
 
 public interface LoadStdlibMessage extends WorkerMessage {
     @JSProperty
@@ -30,4 +31,42 @@ public interface LoadStdlibMessage extends WorkerMessage {
 
     @JSProperty
     void setRuntimeUrl(String url);
+
+    // When specified, used instead of downloading from url
+    @JSProperty
+    Int8Array getData();
+
+    @JSProperty
+    void setData(Int8Array data);
+
+    // When specified, used instead of downloading from runtimeUrl
+    @JSProperty
+    Int8Array getRuntimeData();
+
+    @JSProperty
+    void setRuntimeData(Int8Array data);
+
+    // When set, stored archives are used without checking for their newer versions,
+    // e.g. when another worker sharing the same storage already does it
+    @JSProperty
+    boolean isSkipRevalidation();
+
+    @JSProperty
+    void setSkipRevalidation(boolean skipRevalidation);
+
+    // When set, worker generates WebAssembly incrementally, which is faster on repeated builds,
+    // but uses simple optimizations, so output is larger and slower
+    @JSProperty
+    boolean isIncrementalGeneration();
+
+    @JSProperty
+    void setIncrementalGeneration(boolean incrementalGeneration);
+
+    // When set, all compressed class library files are inflated in background right after loading.
+    // Faster first builds at the cost of keeping the whole inflated library in memory.
+    @JSProperty
+    boolean isInflateNatively();
+
+    @JSProperty
+    void setInflateNatively(boolean inflateNatively);
 }
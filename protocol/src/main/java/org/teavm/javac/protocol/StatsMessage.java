@@ -0,0 +1,48 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac.protocol;
+
+import org.teavm.jso.JSProperty;
+
+public interface StatsMessage extends WorkerMessage {
+    // Stats of the last build, null if there were none
+    @JSProperty
+    BuildStatsInfo getLast();
+
+    @JSProperty
+    void setLast(BuildStatsInfo last);
+
+    @JSProperty
+    BuildStatsInfo getCumulative();
+
+    @JSProperty
+    void setCumulative(BuildStatsInfo cumulative);
+
+    // Bytes of JS heap used by worker, -1 if browser does not report it
+    @JSProperty
+    double getUsedHeap();
+
+    @JSProperty
+    void setUsedHeap(double usedHeap);
+
+    // Maximum of usedHeap sampled after each request
+    @JSProperty
+    double getPeakUsedHeap();
+
+    @JSProperty
+    void setPeakUsedHeap(double peakUsedHeap);
+}
@@ -19,9 +19,30 @@ package org.teavm.javac.protocol;
 import org.teavm.jso.JSProperty;
 
 public interface TeaVMPhaseMessage extends WorkerMessage {
+    // Either "javac" or "teavm"
+    @JSProperty
+    String getTool();
+
+    @JSProperty
+    void setTool(String tool);
+
     @JSProperty
     String getPhase();
 
     @JSProperty
     void setPhase(String phase);
+
+    // Either "start" or "end"
+    @JSProperty
+    String getEvent();
+
+    @JSProperty
+    void setEvent(String event);
+
+    // Milliseconds spent in phase, 0 for "start" events
+    @JSProperty
+    int getElapsed();
+
+    @JSProperty
+    void setElapsed(int elapsed);
 }
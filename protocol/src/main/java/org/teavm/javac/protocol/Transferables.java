@@ -0,0 +1,36 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac.protocol;
+
+import java.util.ArrayList;
+import org.teavm.jso.JSObject;
+import org.teavm.jso.typedarrays.ArrayBufferView;
+
+public final class Transferables {
+    private Transferables() {
+    }
+
+    public static JSObject[] of(ArrayBufferView... views) {
+        var result = new ArrayList<JSObject>();
+        for (var view : views) {
+            if (view != null) {
+                result.add(view.getBuffer());
+            }
+        }
+        return result.toArray(new JSObject[0]);
+    }
+}
@@ -18,8 +18,22 @@ import { load } from './compiler.wasm-runtime.js';
 
 Error.stackTraceLimit = 100;
 
+// Output of program is a stream of UTF-8 bytes of stdout and stderr, switched by bytes that never occur in UTF-8
+const STDOUT_MARKER = 0xFE;
+const STDERR_MARKER = 0xFF;
+const CHUNK_SIZE = 65536;
+
+let sharedOutputBuffer = null;
+
 window.addEventListener("message", async function(event) {
     let request = event.data;
+    if (request.command === "shared-output") {
+        sharedOutputBuffer = request.buffer;
+        return;
+    }
+    let output = sharedOutputBuffer !== null
+        ? new SharedOutput(sharedOutputBuffer)
+        : new MessageOutput(event.source);
     let module;
     try {
          module = await load(request.code, {
@@ -28,8 +42,8 @@ window.addEventListener("message", async function(event) {
                 path: "ui.wasm-deobfuscator.wasm"
             },
             installImports(o) {
-                o.teavmConsole.putcharStdout = putStdout;
-                o.teavmConsole.putcharStderr = putStderr;
+                o.teavmConsole.putcharStdout = ch => output.put(ch, false);
+                o.teavmConsole.putcharStderr = ch => output.put(ch, true);
             }
         });
     } catch (e) {
@@ -37,29 +51,150 @@ window.addEventListener("message", async function(event) {
         return;
     }
     event.source.postMessage({ status: "loaded" }, "*");
-    module.exports.main([]);
+    try {
+        module.exports.main([]);
+    } finally {
+        await output.close();
+        event.source.postMessage({ command: "finished" }, "*");
+    }
+});
+
+// Shared buffer can't be received when frame is not cross-origin isolated, output goes through messages then
+window.addEventListener("messageerror", () => {
+    sharedOutputBuffer = null;
 });
 
 export function start() {
     window.parent.postMessage({ command: "ready" }, "*");
 }
 
-let stdoutBuffer = "";
-function putStdout(ch) {
-    if (ch === 0xA) {
-        window.parent.postMessage({ command: "stdout", line: stdoutBuffer }, "*");
-        stdoutBuffer = "";
-    } else {
-        stdoutBuffer += String.fromCharCode(ch);
+// Writes to ring buffer drained by the page: write position, read position, then data of power-of-two size.
+// Page runs on the same thread as frame, so while program is running, the buffer is not drained.
+// Bytes that don't fit are kept and moved to the buffer on timer.
+class SharedOutput {
+    constructor(buffer) {
+        this.positions = new Int32Array(buffer, 0, 2);
+        this.data = new Uint8Array(buffer, 8);
+        this.mask = this.data.length - 1;
+        this.stderr = false;
+        this.pending = new Uint8Array(CHUNK_SIZE);
+        this.pendingLength = 0;
+        this.flushScheduled = false;
+    }
+
+    put(ch, stderr) {
+        if (stderr !== this.stderr) {
+            this.stderr = stderr;
+            this.write(stderr ? STDERR_MARKER : STDOUT_MARKER);
+        }
+        this.write(ch);
+    }
+
+    write(byte) {
+        if (this.pendingLength === 0) {
+            let write = this.positions[0];
+            let read = Atomics.load(this.positions, 1);
+            if (((write - read) | 0) < this.data.length) {
+                this.data[write & this.mask] = byte;
+                Atomics.store(this.positions, 0, (write + 1) | 0);
+                return;
+            }
+        }
+        if (this.pendingLength === this.pending.length) {
+            let newPending = new Uint8Array(this.pending.length * 2);
+            newPending.set(this.pending);
+            this.pending = newPending;
+        }
+        this.pending[this.pendingLength++] = byte;
+        this.scheduleFlush();
+    }
+
+    scheduleFlush() {
+        if (!this.flushScheduled) {
+            this.flushScheduled = true;
+            setTimeout(() => {
+                this.flushScheduled = false;
+                this.flush();
+            }, 16);
+        }
+    }
+
+    flush() {
+        if (this.pendingLength === 0) {
+            return;
+        }
+        let write = this.positions[0];
+        let read = Atomics.load(this.positions, 1);
+        let count = Math.min(this.pendingLength, this.data.length - ((write - read) | 0));
+        for (let i = 0; i < count; ++i) {
+            this.data[(write + i) & this.mask] = this.pending[i];
+        }
+        Atomics.store(this.positions, 0, (write + count) | 0);
+        this.pending.copyWithin(0, count, this.pendingLength);
+        this.pendingLength -= count;
+        if (this.pendingLength > 0) {
+            this.scheduleFlush();
+        }
+    }
+
+    // Resolves when all output is in the buffer, page drains it in between
+    close() {
+        return new Promise(resolve => {
+            let check = () => {
+                this.flush();
+                if (this.pendingLength === 0) {
+                    resolve();
+                } else {
+                    setTimeout(check, 16);
+                }
+            };
+            check();
+        });
     }
 }
 
-let stderrBuffer = "";
-function putStderr(ch) {
-    if (ch === 0xA) {
-        window.parent.postMessage({ command: "stderr", line: stderrBuffer }, "*");
-        stderrBuffer = "";
-    } else {
-        stderrBuffer += String.fromCharCode(ch);
+// Posts output in chunks, at most one message per chunk or per task
+class MessageOutput {
+    constructor(target) {
+        this.target = target;
+        this.stderr = false;
+        this.buffer = new Uint8Array(CHUNK_SIZE);
+        this.length = 0;
+        this.flushScheduled = false;
+    }
+
+    put(ch, stderr) {
+        if (stderr !== this.stderr) {
+            this.stderr = stderr;
+            this.write(stderr ? STDERR_MARKER : STDOUT_MARKER);
+        }
+        this.write(ch);
     }
-}
\ No newline at end of file
+
+    write(byte) {
+        this.buffer[this.length++] = byte;
+        if (this.length === this.buffer.length) {
+            this.flush();
+        } else if (!this.flushScheduled) {
+            this.flushScheduled = true;
+            setTimeout(() => {
+                this.flushScheduled = false;
+                this.flush();
+            }, 0);
+        }
+    }
+
+    flush() {
+        if (this.length === 0) {
+            return;
+        }
+        let data = this.buffer.slice(0, this.length);
+        this.target.postMessage({ command: "output", data }, "*", [data.buffer]);
+        this.length = 0;
+    }
+
+    close() {
+        this.flush();
+        return Promise.resolve();
+    }
+}
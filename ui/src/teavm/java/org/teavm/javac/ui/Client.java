@@ -16,37 +16,37 @@
 
 package org.teavm.javac.ui;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import org.teavm.javac.protocol.CompilationResultMessage;
 import org.teavm.javac.protocol.CompileMessage;
 import org.teavm.javac.protocol.CompilerDiagnosticMessage;
+import org.teavm.javac.protocol.DiagnosticsMessage;
 import org.teavm.javac.protocol.ErrorMessage;
-import org.teavm.javac.protocol.LoadStdlibMessage;
 import org.teavm.javac.protocol.TeaVMDiagnosticMessage;
+import org.teavm.javac.protocol.TeaVMPhaseMessage;
+import org.teavm.javac.protocol.Transferables;
 import org.teavm.javac.protocol.WorkerMessage;
 import org.teavm.javac.ui.codemirror.CodeMirror;
 import org.teavm.javac.ui.codemirror.CodeMirrorConfig;
 import org.teavm.javac.ui.codemirror.MarkOptions;
 import org.teavm.javac.ui.codemirror.TextLocation;
-import org.teavm.jso.JSBody;
 import org.teavm.jso.JSExport;
-import org.teavm.jso.JSObject;
 import org.teavm.jso.ajax.XMLHttpRequest;
+import org.teavm.jso.browser.Navigator;
 import org.teavm.jso.browser.Window;
 import org.teavm.jso.core.JSObjects;
 import org.teavm.jso.core.JSPromise;
 import org.teavm.jso.dom.events.EventListener;
 import org.teavm.jso.dom.events.MessageEvent;
-import org.teavm.jso.dom.events.Registration;
 import org.teavm.jso.dom.html.HTMLButtonElement;
 import org.teavm.jso.dom.html.HTMLDocument;
 import org.teavm.jso.dom.html.HTMLElement;
 import org.teavm.jso.dom.html.HTMLIFrameElement;
 import org.teavm.jso.json.JSON;
 import org.teavm.jso.typedarrays.Int8Array;
-import org.teavm.jso.workers.Worker;
 
 public final class Client {
     private Client() {
@@ -55,16 +55,20 @@ public final class Client {
     private static final String DIAGNOSTICS_GUTTER = "diagnostics";
     private static final int WARNING = 1;
     private static final int ERROR = 2;
+    private static final int DEFAULT_CONSOLE_CAPACITY = 50000;
+    private static final int CHECK_DELAY = 300;
 
-    private static Worker worker;
+    private static WorkerPool workerPool;
     private static HTMLButtonElement compileButton = (HTMLButtonElement) HTMLDocument.current()
             .getElementById("compile-button");
     private static HTMLButtonElement examplesButton = (HTMLButtonElement) HTMLDocument.current().getElementById(
             "choose-example");
-    private static HTMLElement stdoutElement;
+    private static Console console;
+    private static int consoleCapacityOption;
     private static int lastId;
     private static CodeMirror codeMirror;
     private static PositionIndexer positionIndexer;
+    private static Timeline timeline;
     private static HTMLElement[] gutterElements;
     private static int[] gutterSeverity;
     private static HTMLElement examplesDialog = HTMLDocument.current().getElementById("examples");
@@ -74,12 +78,20 @@ public final class Client {
     private static String workerLocation;
     private static String stdlibLocation;
     private static String runtimeStdlibLocation;
+    private static int workerCountOption;
+    private static int checkTimer;
+    private static boolean checkInProgress;
+    private static boolean checkRequested;
+    // Incremented by each compilation, so that checks started before it don't override its marks
+    private static int markGeneration;
 
     @JSExport
     public static void setupUI(ClientOptions options) {
         workerLocation = options.getWorkerLocation();
         stdlibLocation = options.getStdlibLocation();
         runtimeStdlibLocation = options.getRuntimeStdlibLocation();
+        workerCountOption = options.getWorkerCount();
+        consoleCapacityOption = options.getConsoleCapacity();
         examplesBaseUrl = options.getExamplesLocation();
         frameLocation = options.getFrameLocation();
         frame = (HTMLIFrameElement) HTMLDocument.current().getElementById("result");
@@ -107,6 +119,7 @@ public final class Client {
         config.setLineNumbers(true);
         config.setGutters(new String[] { DIAGNOSTICS_GUTTER, "CodeMirror-linenumbers" });
         codeMirror = CodeMirror.fromTextArea(HTMLDocument.current().getElementById("source-code"), config);
+        codeMirror.on("change", _ -> scheduleCheck());
 
         loadCode();
         Window.current().onBeforeUnload(_ -> saveCode());
@@ -188,16 +201,15 @@ public final class Client {
     }
 
     private static void initStdout() {
-        stdoutElement = HTMLDocument.current().getElementById("stdout");
+        console = new Console(HTMLDocument.current().getElementById("stdout"),
+                consoleCapacityOption > 0 ? consoleCapacityOption : DEFAULT_CONSOLE_CAPACITY);
         Window.current().onMessage((MessageEvent event) -> {
             var request = (FrameCommand) event.getData();
             if (!JSObjects.isUndefined(request.getCommand()) && request.getCommand() != null) {
-                if (request.getCommand().equals("stdout")) {
-                    var stdoutCommand = (FrameStdoutCommand) request;
-                    addToConsole(stdoutCommand.getLine(), false, false);
-                } else if (request.getCommand().equals("stderr")) {
-                    var stdoutCommand = (FrameStdoutCommand) request;
-                    addToConsole(stdoutCommand.getLine(), false, true);
+                if (request.getCommand().equals("output") && programOutput != null) {
+                    programOutput.accept(((FrameOutputCommand) request).getData());
+                } else if (request.getCommand().equals("finished") && programOutput != null) {
+                    programOutput.finish();
                 }
             }
         });
@@ -215,59 +227,53 @@ public final class Client {
     }
 
     private static void addToConsole(String line, boolean compileTime, boolean error) {
-        var lineElem = HTMLDocument.current().createElement("div").withText(line);
-        if (compileTime) {
-            lineElem.setClassName("compile-time");
-        }
-        if (error) {
-            lineElem.setClassName("error");
-        }
-        stdoutElement.appendChild(lineElem);
-        stdoutElement.setScrollTop(Math.max(0, stdoutElement.getScrollHeight() - stdoutElement.getClientHeight()));
+        console.add(line, error ? Console.ERROR : compileTime ? Console.COMPILE_TIME : Console.NORMAL);
     }
 
     private static JSPromise<Boolean> init() {
         compileButton.setDisabled(true);
 
-        worker = new Worker(workerLocation);
-        return waitForWorker()
-                .flatThen(_ -> loadStandardLibrary());
+        var workerCount = workerCountOption > 0
+                ? workerCountOption
+                : Math.max(1, Math.min(4, Navigator.hardwareConcurrency() / 2));
+        workerPool = new WorkerPool(workerLocation, workerCount);
+        return workerPool.start(stdlibLocation, runtimeStdlibLocation)
+                .then(success -> {
+                    if (!success) {
+                        Window.alert("Could not load standard library");
+                        return false;
+                    }
+                    System.out.println("Compiler workers initialized");
+                    compileButton.setDisabled(false);
+                    scheduleCheck();
+                    return true;
+                });
     }
 
-    private static JSPromise<Void> waitForWorker() {
-        return new JSPromise<>((resolve, _) -> {
-            var regHolder = new Object() {
-                Registration reg;
-            };
-            regHolder.reg = worker.onMessage(event -> {
-                var message = (WorkerMessage) event.getData();
-                if (message.getCommand().equals("initialized")) {
-                    regHolder.reg.dispose();
-                    System.out.println("Worker reported initialization");
-                    resolve.accept(null);
-                }
-            });
-        });
-    }
+    private static JSPromise<Int8Array> compile() {
+        console.clear();
+        markGeneration++;
+        clearEditorDiagnostics();
+        timeline = null;
+
+        var worker = workerPool != null ? workerPool.acquire() : null;
+        if (worker == null) {
+            addToConsole("Compiler is not ready", true, true);
+            return JSPromise.resolve(null);
+        }
+        CompileMessage request = workerPool.createMessage("compile");
+        String code = codeMirror.getValue();
+        positionIndexer = new PositionIndexer(code);
+        request.setText(code);
+        worker.worker.postMessage(request);
 
-    private static JSPromise<Boolean> loadStandardLibrary() {
-        LoadStdlibMessage loadStdlib = createMessage("load-classlib");
-        loadStdlib.setUrl(stdlibLocation);
-        loadStdlib.setRuntimeUrl(runtimeStdlibLocation);
-        worker.postMessage(loadStdlib);
-        return waitForResponse(loadStdlib).then(loadStdlibResult -> {
-            if (!loadStdlibResult.getCommand().equals("ok")) {
-                Window.alert("Could not load standard library: " + ((ErrorMessage) loadStdlibResult).getText());
-                return false;
-            }
-            compileButton.setDisabled(false);
-            return true;
+        return waitForCompilationResult(worker, request).then(result -> {
+            worker.release();
+            return result;
         });
     }
 
-    private static JSPromise<Int8Array> compile() {
-        stdoutElement.clear();
-
+    private static void clearEditorDiagnostics() {
         var allMarks = codeMirror.getAllMarks();
         for (int i = 0; i < allMarks.getLength(); ++i) {
             allMarks.get(i).clear();
@@ -275,36 +281,126 @@ public final class Client {
         codeMirror.clearGutter(DIAGNOSTICS_GUTTER);
         gutterElements = new HTMLElement[codeMirror.lineCount()];
         gutterSeverity = new int[codeMirror.lineCount()];
+    }
 
-        CompileMessage request = createMessage("compile");
-        String code = codeMirror.getValue();
-        positionIndexer = new PositionIndexer(code);
-        request.setText(code);
-        worker.postMessage(request);
+    // Runs check some time after user stops typing. Only one check is in flight at a time,
+    // changes made while it runs are checked after it completes.
+    private static void scheduleCheck() {
+        Window.clearTimeout(checkTimer);
+        checkTimer = Window.setTimeout(() -> {
+            if (checkInProgress) {
+                checkRequested = true;
+            } else {
+                check();
+            }
+        }, CHECK_DELAY);
+    }
 
-        return waitForCompilationResult(request);
+    private static void check() {
+        var worker = workerPool != null ? workerPool.acquire() : null;
+        if (worker == null) {
+            return;
+        }
+        checkInProgress = true;
+        checkRequested = false;
+        var generation = markGeneration;
+        CompileMessage request = workerPool.createMessage("check");
+        var code = codeMirror.getValue();
+        request.setText(code);
+        worker.worker.postMessage(request);
+
+        var diagnostics = new ArrayList<CompilerDiagnosticMessage>();
+        worker.waitForResponse(request, message -> {
+            if (message.getCommand().equals("diagnostics")) {
+                var batch = ((DiagnosticsMessage) message).getCompilerDiagnostics();
+                for (var i = 0; i < batch.getLength(); ++i) {
+                    diagnostics.add(batch.get(i));
+                }
+                return false;
+            }
+            return true;
+        }).then(response -> {
+            worker.release();
+            checkInProgress = false;
+            // Positions of diagnostics are only valid for the text that was checked
+            if (response.getCommand().equals("check-complete") && generation == markGeneration
+                    && code.equals(codeMirror.getValue())) {
+                clearEditorDiagnostics();
+                positionIndexer = new PositionIndexer(code);
+                for (var diagnostic : diagnostics) {
+                    if (diagnostic.getStartPosition() >= 0) {
+                        displayMarkInEditor(diagnostic);
+                    }
+                }
+            }
+            if (checkRequested) {
+                check();
+            }
+            return null;
+        });
     }
 
-    private static JSPromise<Int8Array> waitForCompilationResult(CompileMessage request) {
-        return waitForResponse(request).flatThen(response -> {
+    private static JSPromise<Int8Array> waitForCompilationResult(WorkerPool.PooledWorker worker,
+            CompileMessage request) {
+        return worker.waitForResponse(request, Client::handleCompilationMessage).then(response -> {
             switch (response.getCommand()) {
                 case "compilation-complete": {
                     var compilationResult = (CompilationResultMessage) response;
-                    return JSPromise.resolve(compilationResult.getStatus().equals("successful")
-                            ? compilationResult.getScript()
-                            : null);
+                    return compilationResult.getStatus().equals("successful") ? compilationResult.getScript() : null;
                 }
-                case "compiler-diagnostic":
-                    handleCompilerDiagnostic((CompilerDiagnosticMessage) response);
-                    break;
-                case "diagnostic":
-                    handleDiagnostic((TeaVMDiagnosticMessage) response);
-                    break;
+                case "error":
+                    addTextToConsole(((ErrorMessage) response).getText(), true, true);
+                    return null;
+                default:
+                    return null;
             }
-            return waitForCompilationResult(request);
         });
     }
 
+    // Handles intermediate messages, returns true for the final one
+    private static boolean handleCompilationMessage(WorkerMessage message) {
+        switch (message.getCommand()) {
+            case "compilation-complete":
+            case "cancelled":
+            case "error":
+                return true;
+            case "diagnostics":
+                handleDiagnostics((DiagnosticsMessage) message);
+                return false;
+            case "phase":
+                handlePhase((TeaVMPhaseMessage) message);
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private static void handlePhase(TeaVMPhaseMessage message) {
+        if (timeline == null) {
+            timeline = new Timeline();
+            console.setHeader(timeline.getElement());
+        }
+        if (message.getEvent().equals("end")) {
+            timeline.phaseFinished(message.getTool(), message.getPhase(), message.getElapsed());
+        } else {
+            timeline.phaseStarted(message.getTool(), message.getPhase());
+        }
+    }
+
+    private static void handleDiagnostics(DiagnosticsMessage message) {
+        var compilerDiagnostics = message.getCompilerDiagnostics();
+        for (var i = 0; i < compilerDiagnostics.getLength(); ++i) {
+            handleCompilerDiagnostic(compilerDiagnostics.get(i));
+        }
+        var diagnostics = message.getDiagnostics();
+        for (var i = 0; i < diagnostics.getLength(); ++i) {
+            handleDiagnostic(diagnostics.get(i));
+        }
+        if (message.getSuppressed() > 0) {
+            addTextToConsole(message.getSuppressed() + " more diagnostics suppressed", true, false);
+        }
+    }
+
     private static void handleCompilerDiagnostic(CompilerDiagnosticMessage request) {
         StringBuilder sb = new StringBuilder();
         switch (request.getSeverity()) {
@@ -333,7 +429,7 @@ public final class Client {
     }
 
     private static void handleDiagnostic(TeaVMDiagnosticMessage request) {
-        StringBuilder sb = new StringBuilder(request.getSeverity()).append(' ');
+        StringBuilder sb = new StringBuilder(request.getSeverity().toUpperCase()).append(' ');
 
         if (request.getFileName() != null) {
             sb.append("at " + request.getFileName());
@@ -348,10 +444,10 @@ public final class Client {
         if (request.getLineNumber() >= 0) {
             int severity;
             switch (request.getSeverity()) {
-                case "ERROR":
+                case "error":
                     severity = ERROR;
                     break;
-                case "WARNING":
+                case "warning":
                     severity = WARNING;
                     break;
                 default:
@@ -430,47 +526,19 @@ public final class Client {
         codeMirror.setGutterMarker(line, DIAGNOSTICS_GUTTER, element);
     };
 
-    private static <T extends WorkerMessage> T createMessage(String command) {
-        T message = JSObjects.createWithoutProto();
-        message.setCommand(command);
-        message.setId(String.valueOf(lastId++));
-        return message;
-    }
-
-    private static <T extends WorkerMessage> JSPromise<T> waitForResponse(WorkerMessage request) {
-        return new JSPromise<>((resolve, _) -> {
-            class ResponseWait {
-                EventListener<MessageEvent> listener;
-
-                void run() {
-                    listener = event -> {
-                        if (!isMessage(event.getData())) {
-                            return;
-                        }
-                        var message = (WorkerMessage) event.getData();
-                        if (message.getId().equals(request.getId())) {
-                            worker.removeEventListener("message", listener);
-                            //noinspection unchecked
-                            resolve.accept((T) message);
-                        }
-                    };
-                    worker.addEventListener("message", listener);
-                }
-            }
-            new ResponseWait().run();
-        });
-    }
-
-    @JSBody(params = "object", script = "return 'id' in object && typeof object.id === 'string';")
-    private static native boolean isMessage(JSObject object);
-
     private static HTMLIFrameElement frame;
     private static EventListener<MessageEvent> listener;
+    private static ProgramOutput programOutput;
 
     private static void executeCode(Int8Array code) {
         if (frame != null) {
             frame.delete();
         }
+        if (programOutput != null) {
+            programOutput.stop();
+        }
+        var output = new ProgramOutput(console);
+        programOutput = output;
 
         var document = Window.current().getDocument();
         frame = (HTMLIFrameElement) document.createElement("iframe");
@@ -482,10 +550,17 @@ public final class Client {
         listener = event -> {
             var command = (FrameCommand) event.getData();
             if (command.getCommand().equals("ready")) {
+                // Sent separately, since frame can't receive the whole message if it can't share memory
+                if (output.getSharedBuffer() != null) {
+                    FrameSharedOutputCommand outputCommand = JSObjects.create();
+                    outputCommand.setCommand("shared-output");
+                    outputCommand.setBuffer(output.getSharedBuffer());
+                    frame.getContentWindow().postMessage(outputCommand, "*");
+                }
                 FrameCodeCommand codeCommand = JSObjects.create();
                 codeCommand.setCommand("code");
                 codeCommand.setCode(code);
-                frame.getContentWindow().postMessage(codeCommand, "*");
+                frame.getContentWindow().postMessage(codeCommand, "*", Transferables.of(code));
                 Window.current().removeEventListener("message", listener);
                 listener = null;
             }
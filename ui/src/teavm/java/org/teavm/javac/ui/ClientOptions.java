@@ -34,4 +34,12 @@ public interface ClientOptions extends JSObject {
 
     @JSProperty
     String getFrameLocation();
+
+    // Number of compiler workers, when not specified, chosen from number of available cores
+    @JSProperty
+    int getWorkerCount();
+
+    // Number of console lines kept, older lines are dropped
+    @JSProperty
+    int getConsoleCapacity();
 }
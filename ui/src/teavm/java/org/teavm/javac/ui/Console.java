@@ -0,0 +1,154 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac.ui;
+
+import org.teavm.jso.browser.Window;
+import org.teavm.jso.dom.html.HTMLDocument;
+import org.teavm.jso.dom.html.HTMLElement;
+
+// Output console that stays responsive when program prints lots of lines. Lines are stored in a ring buffer
+// of limited capacity and only those in the visible area are rendered. Incoming lines are accumulated and put
+// to DOM once per animation frame, so that layout is computed once per frame rather than once per line.
+// Rendering relies on all lines having the same height, so lines are not wrapped.
+final class Console {
+    static final int NORMAL = 0;
+    static final int COMPILE_TIME = 1;
+    static final int ERROR = 2;
+    private static final String[] CLASS_NAMES = { "console-line", "console-line compile-time", "console-line error" };
+    private static final int OVERSCAN = 10;
+
+    private final HTMLElement element;
+    private final HTMLElement header;
+    private final HTMLElement lines;
+    private final HTMLElement viewport;
+    private final String[] texts;
+    private final byte[] kinds;
+    private int start;
+    private int size;
+    private int lineHeight;
+    private boolean renderScheduled;
+    private boolean stickToBottom = true;
+
+    Console(HTMLElement element, int capacity) {
+        this.element = element;
+        texts = new String[capacity];
+        kinds = new byte[capacity];
+
+        var document = HTMLDocument.current();
+        header = document.createElement("div");
+        element.appendChild(header);
+        lines = document.createElement("div");
+        lines.setClassName("console-lines");
+        element.appendChild(lines);
+        viewport = document.createElement("div");
+        viewport.setClassName("console-viewport");
+        lines.appendChild(viewport);
+
+        element.addEventListener("scroll", _ -> {
+            stickToBottom = isAtBottom();
+            scheduleRender();
+        });
+    }
+
+    // Element shown above lines, removed by clear
+    void setHeader(HTMLElement content) {
+        header.clear();
+        header.appendChild(content);
+    }
+
+    void add(String text, int kind) {
+        var index = (start + size) % texts.length;
+        texts[index] = text;
+        kinds[index] = (byte) kind;
+        if (size < texts.length) {
+            size++;
+        } else {
+            start = (start + 1) % texts.length;
+        }
+        scheduleRender();
+    }
+
+    void clear() {
+        for (var i = 0; i < size; ++i) {
+            texts[(start + i) % texts.length] = null;
+        }
+        start = 0;
+        size = 0;
+        stickToBottom = true;
+        header.clear();
+        viewport.clear();
+        lines.getStyle().setProperty("height", "0");
+    }
+
+    private void scheduleRender() {
+        if (!renderScheduled) {
+            renderScheduled = true;
+            Window.requestAnimationFrame(_ -> render());
+        }
+    }
+
+    private void render() {
+        renderScheduled = false;
+        if (size == 0) {
+            return;
+        }
+        if (lineHeight == 0) {
+            lineHeight = measureLineHeight();
+            if (lineHeight == 0) {
+                return;
+            }
+        }
+        lines.getStyle().setProperty("height", (size * lineHeight) + "px");
+        if (stickToBottom) {
+            element.setScrollTop(element.getScrollHeight());
+        }
+
+        var visibleTop = element.getScrollTop() - lines.getOffsetTop();
+        var first = Math.max(0, visibleTop / lineHeight - OVERSCAN);
+        var last = Math.min(size, (visibleTop + element.getClientHeight()) / lineHeight + 1 + OVERSCAN);
+
+        var count = Math.max(0, last - first);
+        while (viewport.getChildNodes().getLength() > count) {
+            viewport.removeChild(viewport.getLastChild());
+        }
+        while (viewport.getChildNodes().getLength() < count) {
+            viewport.appendChild(HTMLDocument.current().createElement("div"));
+        }
+        var child = (HTMLElement) viewport.getFirstChild();
+        for (var i = first; i < last; ++i) {
+            var index = (start + i) % texts.length;
+            child.setTextContent(texts[index]);
+            child.setClassName(CLASS_NAMES[kinds[index]]);
+            child = (HTMLElement) child.getNextSibling();
+        }
+        viewport.getStyle().setProperty("top", (first * lineHeight) + "px");
+    }
+
+    // Line height is fixed in CSS, so that it's a whole number of pixels and positions don't drift
+    private int measureLineHeight() {
+        var probe = HTMLDocument.current().createElement("div").withText("X");
+        probe.setClassName(CLASS_NAMES[NORMAL]);
+        viewport.appendChild(probe);
+        var height = probe.getOffsetHeight();
+        viewport.removeChild(probe);
+        return height;
+    }
+
+    private boolean isAtBottom() {
+        return element.getScrollTop() + element.getClientHeight() >= element.getScrollHeight() - lineHeight;
+    }
+}
@@ -17,8 +17,9 @@
 package org.teavm.javac.ui;
 
 import org.teavm.jso.JSProperty;
+import org.teavm.jso.typedarrays.Uint8Array;
 
-public interface FrameStdoutCommand extends FrameCommand {
+public interface FrameOutputCommand extends FrameCommand {
     @JSProperty
-    String getLine();
+    Uint8Array getData();
 }
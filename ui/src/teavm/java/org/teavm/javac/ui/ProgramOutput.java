@@ -0,0 +1,178 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac.ui;
+
+import org.teavm.jso.JSBody;
+import org.teavm.jso.JSObject;
+import org.teavm.jso.browser.Window;
+import org.teavm.jso.typedarrays.Atomics;
+import org.teavm.jso.typedarrays.Int32Array;
+import org.teavm.jso.typedarrays.SharedArrayBuffer;
+import org.teavm.jso.typedarrays.Uint8Array;
+
+// Receives output of program running in frame. Frame writes UTF-8 bytes of stdout and stderr into a single
+// stream, switching between them with marker bytes that never occur in UTF-8. When page is cross-origin isolated,
+// the stream goes through a ring buffer in shared memory which is drained on timer, otherwise frame posts chunks
+// of the stream. Both ways are accepted, since frame falls back to messages when it can't receive shared buffer.
+final class ProgramOutput {
+    static final int STDOUT_MARKER = 0xFE;
+    static final int STDERR_MARKER = 0xFF;
+    // Layout of shared buffer: write position, read position, then data
+    private static final int WRITE_POSITION = 0;
+    private static final int READ_POSITION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int CAPACITY = 1 << 20;
+    private static final int DRAIN_INTERVAL = 30;
+
+    private final SharedArrayBuffer buffer;
+    private Int32Array positions;
+    private Uint8Array data;
+    private int timer = -1;
+    private Stream current;
+    private final Stream stdout;
+    private final Stream stderr;
+
+    ProgramOutput(Console console) {
+        stdout = new Stream(console, Console.NORMAL);
+        stderr = new Stream(console, Console.ERROR);
+        current = stdout;
+        buffer = isSharedMemorySupported() ? createSharedBuffer(HEADER_SIZE + CAPACITY) : null;
+        if (buffer != null) {
+            positions = new Int32Array(buffer, 0, 2);
+            data = new Uint8Array(buffer, HEADER_SIZE, CAPACITY);
+            timer = Window.setInterval(this::drain, DRAIN_INTERVAL);
+        }
+    }
+
+    // Null when shared memory is not available
+    SharedArrayBuffer getSharedBuffer() {
+        return buffer;
+    }
+
+    void stop() {
+        if (timer >= 0) {
+            Window.clearInterval(timer);
+            timer = -1;
+        }
+    }
+
+    // Called when program has finished and all of its output was written
+    void finish() {
+        if (positions != null) {
+            drain();
+        }
+        stop();
+        stdout.flush();
+        stderr.flush();
+    }
+
+    void accept(Uint8Array chunk) {
+        consume(chunk, 0, chunk.getLength());
+    }
+
+    private void drain() {
+        var write = Atomics.load(positions, WRITE_POSITION);
+        var read = Atomics.load(positions, READ_POSITION);
+        if (write == read) {
+            return;
+        }
+        // Positions grow infinitely and wrap around, capacity is a power of two
+        var from = read & (CAPACITY - 1);
+        var to = write & (CAPACITY - 1);
+        if (from < to) {
+            consume(data, from, to);
+        } else {
+            consume(data, from, CAPACITY);
+            consume(data, 0, to);
+        }
+        Atomics.store(positions, READ_POSITION, write);
+    }
+
+    private void consume(Uint8Array bytes, int from, int to) {
+        while (from < to) {
+            var marker = indexOfMarker(bytes, from, to);
+            if (marker > from) {
+                current.write(copy(bytes, from, marker));
+            }
+            if (marker < to) {
+                current = bytes.get(marker) == STDERR_MARKER ? stderr : stdout;
+                marker++;
+            }
+            from = marker;
+        }
+    }
+
+    private static class Stream {
+        final Console console;
+        final int kind;
+        final JSObject decoder = createDecoder();
+        String pendingLine = "";
+
+        Stream(Console console, int kind) {
+            this.console = console;
+            this.kind = kind;
+        }
+
+        void write(Uint8Array bytes) {
+            var text = decode(decoder, bytes);
+            var last = 0;
+            for (var i = 0; i < text.length(); ++i) {
+                if (text.charAt(i) == '\n') {
+                    console.add(pendingLine + text.substring(last, i), kind);
+                    pendingLine = "";
+                    last = i + 1;
+                }
+            }
+            pendingLine += text.substring(last);
+        }
+
+        // Last line of output may have no line break
+        void flush() {
+            var text = pendingLine + decodeRest(decoder);
+            pendingLine = "";
+            if (!text.isEmpty()) {
+                console.add(text, kind);
+            }
+        }
+    }
+
+    @JSBody(script = "return self.crossOriginIsolated === true && typeof SharedArrayBuffer === 'function';")
+    private static native boolean isSharedMemorySupported();
+
+    @JSBody(params = "size", script = "return new SharedArrayBuffer(size);")
+    private static native SharedArrayBuffer createSharedBuffer(int size);
+
+    @JSBody(params = { "bytes", "from", "to" }, script = ""
+            + "let stdout = bytes.subarray(from, to).indexOf(0xFE);"
+            + "let stderr = bytes.subarray(from, to).indexOf(0xFF);"
+            + "if (stdout < 0) return stderr < 0 ? to : from + stderr;"
+            + "return from + (stderr < 0 ? stdout : Math.min(stdout, stderr));")
+    private static native int indexOfMarker(Uint8Array bytes, int from, int to);
+
+    // TextDecoder does not accept views of shared memory
+    @JSBody(params = { "bytes", "from", "to" }, script = "return bytes.slice(from, to);")
+    private static native Uint8Array copy(Uint8Array bytes, int from, int to);
+
+    @JSBody(script = "return new TextDecoder();")
+    private static native JSObject createDecoder();
+
+    @JSBody(params = { "decoder", "bytes" }, script = "return decoder.decode(bytes, { stream: true });")
+    private static native String decode(JSObject decoder, Uint8Array bytes);
+
+    @JSBody(params = "decoder", script = "return decoder.decode();")
+    private static native String decodeRest(JSObject decoder);
+}
@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.teavm.jso.dom.html.HTMLDocument;
+import org.teavm.jso.dom.html.HTMLElement;
+
+// Shows compilation phases reported by worker as a bar where each phase takes space proportional
+// to its duration, followed by a textual summary. Running phase is shown while compilation proceeds.
+final class Timeline {
+    private final HTMLElement element;
+    private final HTMLElement bar;
+    private final HTMLElement label;
+    private final List<Phase> phases = new ArrayList<>();
+
+    Timeline() {
+        var document = HTMLDocument.current();
+        element = document.createElement("div");
+        element.setClassName("timeline");
+        bar = document.createElement("div");
+        bar.setClassName("timeline-bar");
+        element.appendChild(bar);
+        label = document.createElement("div");
+        element.appendChild(label);
+    }
+
+    HTMLElement getElement() {
+        return element;
+    }
+
+    void phaseStarted(String tool, String phase) {
+        label.setInnerText(tool + ": " + phase + "...");
+    }
+
+    void phaseFinished(String tool, String phase, int elapsed) {
+        phases.add(new Phase(tool, phase, elapsed));
+        var segment = HTMLDocument.current().createElement("div");
+        segment.setClassName("timeline-segment timeline-" + tool);
+        segment.setTitle(tool + " " + phase + ": " + elapsed + " ms");
+        segment.getStyle().setProperty("flex-grow", String.valueOf(Math.max(1, elapsed)));
+        bar.appendChild(segment);
+        label.setInnerText(summary());
+    }
+
+    private String summary() {
+        var sb = new StringBuilder();
+        String lastTool = null;
+        var total = 0;
+        for (var phase : phases) {
+            if (!phase.tool.equals(lastTool)) {
+                if (lastTool != null) {
+                    sb.append("; ");
+                }
+                sb.append(phase.tool).append(':');
+                lastTool = phase.tool;
+            }
+            sb.append(' ').append(phase.name).append(' ').append(phase.elapsed).append(" ms");
+            total += phase.elapsed;
+        }
+        return "Build took " + total + " ms (" + sb + ")";
+    }
+
+    private static class Phase {
+        final String tool;
+        final String name;
+        final int elapsed;
+
+        Phase(String tool, String name, int elapsed) {
+            this.tool = tool;
+            this.name = name;
+            this.elapsed = elapsed;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ *  Copyright 2025 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.teavm.javac.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import org.teavm.javac.protocol.ErrorMessage;
+import org.teavm.javac.protocol.LoadStdlibMessage;
+import org.teavm.javac.protocol.WorkerMessage;
+import org.teavm.jso.JSBody;
+import org.teavm.jso.JSObject;
+import org.teavm.jso.core.JSObjects;
+import org.teavm.jso.core.JSPromise;
+import org.teavm.jso.dom.events.EventListener;
+import org.teavm.jso.dom.events.MessageEvent;
+import org.teavm.jso.workers.Worker;
+
+// Spawns several compiler workers. The first worker downloads classlib and puts it into storage
+// shared by all workers, the rest start after it and pick classlib from storage. Only the first worker
+// checks for updated classlib, so it's not downloaded by each worker again. Pool becomes usable
+// as soon as the first worker is ready, the rest join in background.
+final class WorkerPool {
+    private final String location;
+    private final int size;
+    private final List<PooledWorker> workers = new ArrayList<>();
+    private int lastId;
+    private int useCounter;
+
+    WorkerPool(String location, int size) {
+        this.location = location;
+        this.size = size;
+    }
+
+    JSPromise<Boolean> start(String sdkUrl, String runtimeUrl) {
+        var first = new PooledWorker(new Worker(location));
+        workers.add(first);
+        return first.start(sdkUrl, runtimeUrl, false).then(success -> {
+            first.ready = success;
+            for (var i = 1; success && i < size; ++i) {
+                var standby = new PooledWorker(new Worker(location));
+                workers.add(standby);
+                standby.start(sdkUrl, runtimeUrl, true).then(standbySuccess -> {
+                    standby.ready = standbySuccess;
+                    return null;
+                });
+            }
+            return success;
+        });
+    }
+
+    // Picks ready worker with the fewest pending requests. Among equally loaded workers prefers the one
+    // used most recently, since it keeps warm compiler caches.
+    PooledWorker acquire() {
+        PooledWorker result = null;
+        for (var worker : workers) {
+            if (!worker.ready) {
+                continue;
+            }
+            if (result == null || worker.pending < result.pending
+                    || worker.pending == result.pending && worker.lastUse > result.lastUse) {
+                result = worker;
+            }
+        }
+        if (result != null) {
+            result.pending++;
+            result.lastUse = ++useCounter;
+        }
+        return result;
+    }
+
+    <T extends WorkerMessage> T createMessage(String command) {
+        T message = JSObjects.createWithoutProto();
+        message.setCommand(command);
+        message.setId(String.valueOf(lastId++));
+        return message;
+    }
+
+    final class PooledWorker {
+        final Worker worker;
+        boolean ready;
+        int pending;
+        int lastUse;
+
+        PooledWorker(Worker worker) {
+            this.worker = worker;
+        }
+
+        void release() {
+            pending--;
+        }
+
+        private JSPromise<Boolean> start(String sdkUrl, String runtimeUrl, boolean skipRevalidation) {
+            return waitForInitialization().flatThen(_ -> {
+                LoadStdlibMessage loadStdlib = createMessage("load-classlib");
+                loadStdlib.setUrl(sdkUrl);
+                loadStdlib.setRuntimeUrl(runtimeUrl);
+                loadStdlib.setSkipRevalidation(skipRevalidation);
+                worker.postMessage(loadStdlib);
+                return waitForResponse(loadStdlib).then(response -> {
+                    if (!response.getCommand().equals("ok")) {
+                        System.err.println("Worker could not load standard library: "
+                                + ((ErrorMessage) response).getText());
+                        return false;
+                    }
+                    return true;
+                });
+            });
+        }
+
+        private JSPromise<Void> waitForInitialization() {
+            return new JSPromise<>((resolve, _) -> {
+                var holder = new Object() {
+                    EventListener<MessageEvent> listener;
+                };
+                holder.listener = event -> {
+                    var message = (WorkerMessage) event.getData();
+                    if (message.getCommand().equals("initialized")) {
+                        worker.removeEventListener("message", holder.listener);
+                        resolve.accept(null);
+                    }
+                };
+                worker.addEventListener("message", holder.listener);
+            });
+        }
+
+        <T extends WorkerMessage> JSPromise<T> waitForResponse(WorkerMessage request) {
+            return waitForResponse(request, _ -> true);
+        }
+
+        // Passes messages tagged with request id to the given predicate, until it accepts one of them
+        // as the final response
+        <T extends WorkerMessage> JSPromise<T> waitForResponse(WorkerMessage request,
+                Predicate<WorkerMessage> isFinal) {
+            return new JSPromise<>((resolve, _) -> {
+                var holder = new Object() {
+                    EventListener<MessageEvent> listener;
+                };
+                holder.listener = event -> {
+                    if (!isMessage(event.getData())) {
+                        return;
+                    }
+                    var message = (WorkerMessage) event.getData();
+                    if (message.getId().equals(request.getId()) && isFinal.test(message)) {
+                        worker.removeEventListener("message", holder.listener);
+                        //noinspection unchecked
+                        resolve.accept((T) message);
+                    }
+                };
+                worker.addEventListener("message", holder.listener);
+            });
+        }
+    }
+
+    @JSBody(params = "object", script = "return 'id' in object && typeof object.id === 'string';")
+    private static native boolean isMessage(JSObject object);
+}
@@ -39,4 +39,6 @@ public abstract class CodeMirror implements JSObject {
     public abstract void clearGutter(String id);
 
     public abstract void setGutterMarker(int line, String gutterId, HTMLElement value);
+
+    public abstract void on(String eventType, ChangeHandler handler);
 }